@@ -0,0 +1,88 @@
+package com.example.mcp.service;
+
+import com.example.mcp.config.EventProperties;
+import com.example.mcp.config.ExecutionProperties;
+import com.example.mcp.config.PoolProperties;
+import com.example.mcp.config.ProfileProperties;
+import com.example.mcp.config.ReaperProperties;
+import com.example.mcp.config.ScreenshotProperties;
+import com.example.mcp.config.TabProperties;
+import com.example.mcp.config.WaitProperties;
+import com.example.mcp.data.Browser;
+import com.example.mcp.data.BrowserOptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The browser services wired by hand with the default configuration, plus the fixture server. The browser is
+ * chosen with {@code -Dbenchmark.browser=chrome|firefox} and always runs headless.
+ */
+final class BenchmarkContext implements AutoCloseable {
+
+    final FixtureServer fixtures;
+    final SessionManager sessionManager;
+    final BrowserMetrics browserMetrics;
+    final WebDriverPool driverPool;
+    final BrowserActions browserActions;
+    final ScreenshotWriter screenshotWriter;
+    final BrowserService browserService;
+
+    BenchmarkContext(boolean pooled) throws IOException {
+        fixtures = new FixtureServer();
+        sessionManager = new SessionManager(new ExecutionProperties(8, 32, Duration.ofSeconds(60)));
+        browserMetrics = new BrowserMetrics(new SimpleMeterRegistry(), sessionManager);
+        driverPool = new WebDriverPool(new WebDriverFactory(),
+                new PoolProperties(pooled, 1, 4, Duration.ofMillis(200), List.of()), browserMetrics,
+                new ProfileManager(new ProfileProperties(null)));
+        WaitEngine waitEngine = new WaitEngine(new WaitProperties(Duration.ofSeconds(20), Map.of(),
+                Duration.ofMillis(25), Duration.ofMillis(500), 2.0, false));
+        browserActions = new BrowserActions(waitEngine, browserMetrics);
+        screenshotWriter = new ScreenshotWriter(new ScreenshotProperties(null, 2, 16));
+        SessionReaper sessionReaper = new SessionReaper(sessionManager, driverPool,
+                new ReaperProperties(false, Duration.ofSeconds(30), Duration.ofMinutes(15), Duration.ofHours(4), false,
+                        Duration.ofMinutes(5), null),
+                browserMetrics);
+        browserService = new BrowserService(driverPool, sessionManager, browserActions, screenshotWriter, browserMetrics,
+                sessionReaper, new NetworkFilter(), new PageEvents(new EventProperties(Duration.ofMillis(500), 0,
+                Duration.ofMillis(500), Duration.ofMillis(250), 500)),
+                new TabManager(new TabProperties(64)));
+        driverPool.start();
+    }
+
+    static Browser browser() {
+        return Browser.valueOf(System.getProperty("benchmark.browser", Browser.chrome.name()));
+    }
+
+    static BrowserOptions options() {
+        List<String> arguments = browser() == Browser.chrome
+                ? List.of("--no-sandbox", "--disable-dev-shm-usage", "--window-size=1280,800")
+                : List.of("--width=1280", "--height=800");
+        return new BrowserOptions(true, arguments);
+    }
+
+    /**
+     * Opens a session through browser_open and returns its id.
+     */
+    String openSession() {
+        String result = browserService.openBrowser(browser(), options(), null);
+        if (!result.contains("session_id: "))
+            throw new IllegalStateException(result);
+        return result.substring(result.indexOf("session_id: ") + "session_id: ".length());
+    }
+
+    BrowserSession session(String sessionId) {
+        return sessionManager.resolve(sessionId, null);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        browserService.onShutdown();
+        driverPool.shutdown();
+        screenshotWriter.shutdown();
+        fixtures.close();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.mcp.service;
+
+import com.example.mcp.data.LocatorStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Round trips of browser_click and browser_send_keys on the form fixture, including session lookup and locking.
+ */
+public class ElementActionBenchmark extends SessionBenchmark {
+
+    @Override
+    protected void prepare() {
+        navigate("/form.html");
+    }
+
+    @Benchmark
+    public String click() {
+        return context.browserService.browserClick(LocatorStrategy.id, "submit", null, sessionId, null);
+    }
+
+    @Benchmark
+    public String sendKeys() {
+        return context.browserService.browserSendKeys(LocatorStrategy.id, "first-name", "benchmark", null, sessionId, null);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.mcp.service;
+
+import com.example.mcp.data.ExtractField;
+import com.example.mcp.data.ExtractResult;
+import com.example.mcp.data.LocatorStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reading the name and price of the first rows of the large fixture, with one browser_extract call or with
+ * one browser_get_text call per cell.
+ */
+public class ExtractBenchmark extends SessionBenchmark {
+
+    @Param({"10", "100"})
+    public int rows;
+
+    private BrowserSession session;
+    private final Map<String, ExtractField> fields = new LinkedHashMap<>();
+
+    @Override
+    protected void prepare() {
+        navigate("/large?rows=1000");
+        session = context.session(sessionId);
+        fields.put("name", new ExtractField("td.name", null, null));
+        fields.put("price", new ExtractField("td.price", null, null));
+    }
+
+    @Benchmark
+    public ExtractResult extract() {
+        return context.browserActions.extract(session, LocatorStrategy.cssSelector, "#data tr", fields, 0, rows, (Long) null);
+    }
+
+    @Benchmark
+    public void getTextPerCell(Blackhole blackhole) {
+        for (int i = 1; i <= rows; i++) {
+            blackhole.consume(context.browserService.getText(LocatorStrategy.cssSelector,
+                    "#data tr:nth-child(" + i + ") td.name", null, sessionId, null));
+            blackhole.consume(context.browserService.getText(LocatorStrategy.cssSelector,
+                    "#data tr:nth-child(" + i + ") td.price", null, sessionId, null));
+        }
+    }
+}
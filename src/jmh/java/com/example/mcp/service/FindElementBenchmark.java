@@ -0,0 +1,47 @@
+package com.example.mcp.service;
+
+import com.example.mcp.data.LocatorStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Element lookup per locator strategy on the form fixture, through the session's element cache or with the
+ * cache cleared before every lookup.
+ */
+public class FindElementBenchmark extends SessionBenchmark {
+
+    private static final Map<LocatorStrategy, String> LOCATORS = Map.of(
+            LocatorStrategy.id, "email",
+            LocatorStrategy.className, "primary",
+            LocatorStrategy.cssSelector, "#signup input[name='email']",
+            LocatorStrategy.name, "email",
+            LocatorStrategy.tag, "textarea",
+            LocatorStrategy.linkText, "Home page",
+            LocatorStrategy.partialLinkText, "Home",
+            LocatorStrategy.xpath, "//form[@id='signup']//input[@name='email']");
+
+    @Param({"id", "className", "cssSelector", "name", "tag", "linkText", "partialLinkText", "xpath"})
+    public LocatorStrategy strategy;
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    private BrowserSession session;
+
+    @Override
+    protected void prepare() {
+        navigate("/form.html");
+        session = context.session(sessionId);
+    }
+
+    @Benchmark
+    public WebElement findElement() {
+        if (!cached)
+            session.clearElementCache();
+        return context.browserActions.findElement(session, strategy, LOCATORS.get(strategy), Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.mcp.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves deterministic fixture pages on a loopback port: the static pages of {@code src/jmh/resources/fixtures}
+ * and {@code /large?rows=N}, a generated table page whose size scales with N.
+ */
+final class FixtureServer implements AutoCloseable {
+
+    private final HttpServer server;
+
+    FixtureServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/large", this::large);
+        server.createContext("/", this::fixture);
+        server.start();
+    }
+
+    String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private void fixture(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        try (InputStream page = FixtureServer.class.getResourceAsStream("/fixtures" + path)) {
+            if (page == null) {
+                send(exchange, 404, "not found");
+                return;
+            }
+            send(exchange, 200, new String(page.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private void large(HttpExchange exchange) throws IOException {
+        int rows = queryInt(exchange.getRequestURI(), "rows", 100);
+        StringBuilder html = new StringBuilder("<!DOCTYPE html><html><head><title>Large fixture</title>")
+                .append("<style>td { padding: 2px; }</style><script>window.loaded = true;</script></head><body><table id=\"data\">");
+        for (int i = 0; i < rows; i++)
+            html.append("<tr><td class=\"id\">").append(i)
+                    .append("</td><td class=\"name\">Item ").append(i)
+                    .append("</td><td class=\"price\">").append(i * 7 % 1000).append(".99</td>")
+                    .append("<td><svg width=\"10\" height=\"10\"><circle r=\"4\" cx=\"5\" cy=\"5\"/></svg></td></tr>");
+        send(exchange, 200, html.append("</table></body></html>").toString());
+    }
+
+    private int queryInt(URI uri, String name, int defaultValue) {
+        String query = uri.getQuery();
+        if (query != null)
+            for (String pair : query.split("&"))
+                if (pair.startsWith(name + "="))
+                    return Integer.parseInt(pair.substring(name.length() + 1));
+        return defaultValue;
+    }
+
+    private void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
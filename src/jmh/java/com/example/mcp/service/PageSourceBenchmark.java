@@ -0,0 +1,28 @@
+package com.example.mcp.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * browser_page_source on pages of growing size, as the whole source or as a stripped first chunk.
+ */
+public class PageSourceBenchmark extends SessionBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int rows;
+
+    @Override
+    protected void prepare() {
+        navigate("/large?rows=" + rows);
+    }
+
+    @Benchmark
+    public String full() {
+        return context.browserService.pageSource(null, null, null, null, null, sessionId, null);
+    }
+
+    @Benchmark
+    public String strippedChunk() {
+        return context.browserService.pageSource(null, true, 0, 20_000, null, sessionId, null);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.mcp.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Viewport capture through browser_take_screenshot (written to a file in the background) and
+ * browser_screenshot_image (downscaled JPEG returned inline).
+ */
+public class ScreenshotBenchmark extends SessionBenchmark {
+
+    private Path directory;
+
+    @Override
+    protected void prepare() throws Exception {
+        navigate("/large?rows=100");
+        directory = Files.createTempDirectory("screenshot-benchmark");
+    }
+
+    @Benchmark
+    public String file() {
+        return context.browserService.takeScreenshot(directory.resolve("screenshot.png").toString(),
+                "png", null, null, null, null, null, sessionId, null);
+    }
+
+    @Benchmark
+    public String inline() {
+        return context.browserService.screenshotImage(0.8f, 1024, null, null, null, sessionId, null);
+    }
+}
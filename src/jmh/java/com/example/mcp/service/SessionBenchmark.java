@@ -0,0 +1,51 @@
+package com.example.mcp.service;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base of the benchmarks that run against one open browser session. Subclasses prepare the page in
+ * {@link #prepare()}, which runs once per trial after the session is open.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class SessionBenchmark {
+
+    protected BenchmarkContext context;
+    protected String sessionId;
+
+    @Setup(Level.Trial)
+    public void openSession() throws Exception {
+        context = new BenchmarkContext(false);
+        sessionId = context.openSession();
+        prepare();
+    }
+
+    protected abstract void prepare() throws Exception;
+
+    protected void navigate(String path) {
+        String result = context.browserService.browserNavigate(context.fixtures.url(path), sessionId, null);
+        if (!result.startsWith("Successfully"))
+            throw new IllegalStateException(result);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeSession() throws Exception {
+        context.close();
+    }
+}
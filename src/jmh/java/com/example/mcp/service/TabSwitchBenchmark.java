@@ -0,0 +1,29 @@
+package com.example.mcp.service;
+
+import com.example.mcp.data.TabAction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Selecting tabs by index through browser_tabs with a growing number of open tabs.
+ */
+public class TabSwitchBenchmark extends SessionBenchmark {
+
+    @Param({"2", "10", "50"})
+    public int tabs;
+
+    private int next;
+
+    @Override
+    protected void prepare() {
+        navigate("/blank.html");
+        for (int i = 1; i < tabs; i++)
+            context.browserService.browserTabs(TabAction.NEW, null, null, null, sessionId, null);
+    }
+
+    @Benchmark
+    public String select() {
+        next = (next + 1) % tabs;
+        return context.browserService.browserTabs(TabAction.SELECT, next, null, null, sessionId, null);
+    }
+}
@@ -1,27 +1,66 @@
 package com.example.mcp;
 
+import com.example.mcp.config.ExecutionProperties;
+import com.example.mcp.service.BatchService;
+import com.example.mcp.service.BrowserMetrics;
 import com.example.mcp.service.BrowserService;
+import com.example.mcp.service.CrawlService;
+import com.example.mcp.service.EventService;
+import com.example.mcp.service.ExtractService;
+import com.example.mcp.service.InstrumentedToolCallback;
+import com.example.mcp.service.LimitedToolCallback;
+import com.example.mcp.service.RecordingService;
+import com.example.mcp.service.ResultFormatter;
+import com.example.mcp.service.ResultService;
+import com.example.mcp.service.ResultToolCallback;
+import com.example.mcp.service.StorageService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.ai.tool.ToolCallback;
 import org.springframework.ai.tool.ToolCallbackProvider;
 import org.springframework.ai.tool.method.MethodToolCallbackProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.annotation.Bean;
 
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class SpringMcpServerApplication {
 
 	private static final Logger logger = LoggerFactory.getLogger(SpringMcpServerApplication.class);
 
+	private static final String VIRTUAL_THREADS_PROPERTY = "reactor.schedulers.defaultBoundedElasticOnVirtualThreads";
+
 	public static void main(String[] args) {
+		// tool calls run on Reactor's bounded elastic scheduler, back it by virtual threads where the JDK has them
+		if (Runtime.version().feature() >= 21 && System.getProperty(VIRTUAL_THREADS_PROPERTY) == null)
+			System.setProperty(VIRTUAL_THREADS_PROPERTY, "true");
 		SpringApplication.run(SpringMcpServerApplication.class, args);
 		logger.info("Server started");
 	}
 
 	@Bean
-	public ToolCallbackProvider getTools(BrowserService browserService) {
-		return MethodToolCallbackProvider.builder().toolObjects(browserService).build();
+	public ToolCallbackProvider getTools(BrowserService browserService, BatchService batchService,
+										 ExtractService extractService, CrawlService crawlService,
+										 StorageService storageService, EventService eventService,
+										 RecordingService recordingService, ResultService resultService,
+										 ResultFormatter resultFormatter, BrowserMetrics browserMetrics,
+										 ExecutionProperties executionProperties) {
+		ToolCallback[] tools = MethodToolCallbackProvider.builder()
+				.toolObjects(browserService, batchService, extractService, crawlService, storageService, eventService,
+						recordingService, resultService, browserMetrics)
+				.build()
+				.getToolCallbacks();
+		int limit = executionProperties.maxInFlightCalls();
+		Semaphore inFlightCalls = new Semaphore(limit);
+		return ToolCallbackProvider.from(Arrays.stream(tools)
+				.map(tool -> new InstrumentedToolCallback(new ResultToolCallback(
+						new LimitedToolCallback(tool, inFlightCalls, limit), resultFormatter, browserMetrics), browserMetrics))
+				.toList());
 	}
 
 }
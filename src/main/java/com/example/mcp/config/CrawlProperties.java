@@ -0,0 +1,23 @@
+package com.example.mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the browser_crawl tool.
+ *
+ * @param maxConcurrency  upper bound of browsers a single crawl opens, also the default
+ * @param pageTimeout     time a page may take to load and to show its first row together, unless the call passes
+ *                        a timeout
+ * @param maxDuration     deadline of the whole crawl, urls not started by then are reported as not crawled and the
+ *                        pages running get only the time left
+ */
+@ConfigurationProperties(prefix = "mcp.browser.crawl")
+public record CrawlProperties(
+        @DefaultValue("4") int maxConcurrency,
+        @DefaultValue("30s") Duration pageTimeout,
+        @DefaultValue("5m") Duration maxDuration
+) {
+}
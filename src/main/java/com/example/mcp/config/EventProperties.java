@@ -0,0 +1,25 @@
+package com.example.mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Page events of browser_subscribe and the conditions of browser_wait_for.
+ *
+ * @param networkIdleTime      time without network activity before the network counts as idle
+ * @param networkIdleRequests  requests that may still be in flight on an idle network, e.g long polling
+ * @param domStableTime        time without DOM mutations before the DOM counts as stable
+ * @param domChangeInterval    DOM mutations are reported at most once per interval, summarized
+ * @param maxMessageChars      length of the message of an event, e.g a console entry
+ */
+@ConfigurationProperties(prefix = "mcp.browser.events")
+public record EventProperties(
+        @DefaultValue("500ms") Duration networkIdleTime,
+        @DefaultValue("0") int networkIdleRequests,
+        @DefaultValue("500ms") Duration domStableTime,
+        @DefaultValue("250ms") Duration domChangeInterval,
+        @DefaultValue("500") int maxMessageChars
+) {
+}
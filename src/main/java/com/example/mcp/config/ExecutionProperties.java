@@ -0,0 +1,21 @@
+package com.example.mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Limits of concurrent tool execution. Calls beyond the limits are rejected right away instead of queueing up.
+ *
+ * @param maxSessions         browser sessions open at the same time
+ * @param maxInFlightCalls    tool calls executing at the same time across all sessions
+ * @param sessionLockTimeout  how long a call waits for the previous call on the same session to finish
+ */
+@ConfigurationProperties(prefix = "mcp.browser.execution")
+public record ExecutionProperties(
+        @DefaultValue("8") int maxSessions,
+        @DefaultValue("32") int maxInFlightCalls,
+        @DefaultValue("60s") Duration sessionLockTimeout
+) {
+}
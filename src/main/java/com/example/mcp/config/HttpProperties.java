@@ -0,0 +1,25 @@
+package com.example.mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Limits of the HTTP/SSE transport, only used when the server runs with the http profile.
+ *
+ * @param maxConnections      open SSE streams, i.e connected clients, further clients are rejected with 503
+ * @param maxPendingMessages  client messages handled at once, further messages are rejected with 503
+ * @param retryAfter          Retry-After sent with a rejection
+ * @param heartbeatInterval   SSE comment sent on idle streams, detects clients that went away without closing
+ * @param drainTimeout        on shutdown, how long running calls may finish before the streams are closed
+ */
+@ConfigurationProperties(prefix = "mcp.browser.http")
+public record HttpProperties(
+        @DefaultValue("64") int maxConnections,
+        @DefaultValue("64") int maxPendingMessages,
+        @DefaultValue("5s") Duration retryAfter,
+        @DefaultValue("15s") Duration heartbeatInterval,
+        @DefaultValue("30s") Duration drainTimeout
+) {
+}
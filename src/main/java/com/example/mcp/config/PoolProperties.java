@@ -0,0 +1,27 @@
+package com.example.mcp.config;
+
+import com.example.mcp.data.Browser;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings of the pre-warmed WebDriver pool.
+ *
+ * @param enabled         lease drivers from the pool instead of launching a new one on every browser_open
+ * @param minIdle         idle drivers kept ready for every browser/options combination seen so far
+ * @param maxTotal        upper bound of drivers owned by the pool, idle and leased together
+ * @param refillInterval  delay between two runs of the background refiller and health check
+ * @param warmup          browsers to pre-launch in headless mode on startup
+ */
+@ConfigurationProperties(prefix = "mcp.browser.pool")
+public record PoolProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1") int minIdle,
+        @DefaultValue("4") int maxTotal,
+        @DefaultValue("5s") Duration refillInterval,
+        @DefaultValue List<Browser> warmup
+) {
+}
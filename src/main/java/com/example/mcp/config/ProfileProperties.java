@@ -0,0 +1,14 @@
+package com.example.mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of persistent browser profiles.
+ *
+ * @param directory  directory of the named profiles, storage snapshots and recordings, defaults to ~/.mcp/profiles
+ */
+@ConfigurationProperties(prefix = "mcp.browser.profile")
+public record ProfileProperties(
+        String directory
+) {
+}
@@ -0,0 +1,32 @@
+package com.example.mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Cleanup of browser sessions that clients leave open.
+ *
+ * @param enabled                 run the background reaper
+ * @param interval                delay between two runs of the reaper
+ * @param idleTimeout             sessions without a tool call for this long are closed
+ * @param maxLifetime             sessions open for this long are closed, however recently they were used
+ * @param evictLeastRecentlyUsed  when the session limit is reached, browser_open closes the least recently used
+ *                                session instead of failing. Off by default, the session may belong to another client
+ * @param evictMinIdle            sessions used more recently than this are never evicted
+ * @param maxRss                  sessions whose browser processes use more resident memory than this are closed,
+ *                                read from /proc on Linux. Not set disables the check
+ */
+@ConfigurationProperties(prefix = "mcp.browser.reaper")
+public record ReaperProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("30s") Duration interval,
+        @DefaultValue("15m") Duration idleTimeout,
+        @DefaultValue("4h") Duration maxLifetime,
+        @DefaultValue("false") boolean evictLeastRecentlyUsed,
+        @DefaultValue("5m") Duration evictMinIdle,
+        DataSize maxRss
+) {
+}
@@ -0,0 +1,18 @@
+package com.example.mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of browser_replay.
+ *
+ * @param fastPathTimeout  time a replayed step waits for its recorded element before it falls back to the
+ *                         locator it was called with and the normal timeout of the tool
+ */
+@ConfigurationProperties(prefix = "mcp.browser.recording")
+public record RecordingProperties(
+        @DefaultValue("2s") Duration fastPathTimeout
+) {
+}
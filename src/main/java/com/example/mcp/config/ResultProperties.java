@@ -0,0 +1,41 @@
+package com.example.mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shaping of tool results before they are sent to the client.
+ *
+ * @param structured          wrap results in a JSON object with status, error code and continuation handle, plain text otherwise
+ * @param defaultMaxChars     characters of a result sent at once, the rest is fetched with browser_continue
+ * @param maxChars            budget per tool name, overriding the default
+ * @param collapseWhitespace  collapse runs of spaces and blank lines in text results, indentation at the start of
+ *                            a line is kept
+ * @param verbatimTools       tools whose text results are never collapsed, e.g page source with pre and code
+ *                            blocks or the snapshot outline
+ * @param maxErrorChars       length of the error summary returned to the client, the full error is only logged
+ * @param rawTools            tools whose results are passed through untouched, e.g image results
+ * @param continuationTtl     how long the rest of a truncated result can be fetched
+ * @param maxContinuations    truncated results kept at most, the oldest are dropped first
+ */
+@ConfigurationProperties(prefix = "mcp.browser.result")
+public record ResultProperties(
+        @DefaultValue("true") boolean structured,
+        @DefaultValue("20000") int defaultMaxChars,
+        @DefaultValue Map<String, Integer> maxChars,
+        @DefaultValue("true") boolean collapseWhitespace,
+        @DefaultValue({"browser_page_source", "browser_snapshot"}) List<String> verbatimTools,
+        @DefaultValue("300") int maxErrorChars,
+        @DefaultValue("browser_screenshot_image") List<String> rawTools,
+        @DefaultValue("10m") Duration continuationTtl,
+        @DefaultValue("64") int maxContinuations
+) {
+
+    public int maxCharsFor(String toolName) {
+        return maxChars.getOrDefault(toolName, defaultMaxChars);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of screenshot capture.
+ *
+ * @param directory      directory of screenshots saved without an explicit output path, defaults to ~/.mcp/screenshots
+ * @param writerThreads  background threads encoding and writing screenshot files
+ * @param queueCapacity  pending screenshot writes before the capturing thread has to write itself
+ */
+@ConfigurationProperties(prefix = "mcp.browser.screenshot")
+public record ScreenshotProperties(
+        String directory,
+        @DefaultValue("2") int writerThreads,
+        @DefaultValue("16") int queueCapacity
+) {
+}
@@ -0,0 +1,15 @@
+package com.example.mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of browser_tabs.
+ *
+ * @param maxTabs  tabs a session may have open at once, opening more is rejected
+ */
+@ConfigurationProperties(prefix = "mcp.browser.tabs")
+public record TabProperties(
+        @DefaultValue("20") int maxTabs
+) {
+}
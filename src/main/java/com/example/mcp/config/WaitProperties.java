@@ -0,0 +1,32 @@
+package com.example.mcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Settings of the adaptive wait used to locate elements.
+ *
+ * @param defaultTimeout       timeout of a tool call that does not pass one and has no entry in {@code toolTimeouts}
+ * @param toolTimeouts         default timeout per tool name e.g browser_click
+ * @param initialPollInterval  first delay after the immediate check failed
+ * @param maxPollInterval      upper bound of the delay between two checks
+ * @param backoffMultiplier    factor applied to the delay after every failed check
+ * @param mutationObserver     wake up on the next DOM mutation instead of sleeping the whole poll interval
+ */
+@ConfigurationProperties(prefix = "mcp.browser.wait")
+public record WaitProperties(
+        @DefaultValue("20s") Duration defaultTimeout,
+        @DefaultValue Map<String, Duration> toolTimeouts,
+        @DefaultValue("25ms") Duration initialPollInterval,
+        @DefaultValue("500ms") Duration maxPollInterval,
+        @DefaultValue("2.0") double backoffMultiplier,
+        @DefaultValue("false") boolean mutationObserver
+) {
+
+    public Duration timeoutFor(String toolName) {
+        return toolTimeouts.getOrDefault(toolName, defaultTimeout);
+    }
+}
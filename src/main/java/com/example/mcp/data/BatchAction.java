@@ -0,0 +1,14 @@
+package com.example.mcp.data;
+
+public enum BatchAction {
+    NAVIGATE,
+    CLICK,
+    SEND_KEYS,
+    GET_TEXT,
+    HOVER,
+    DOUBLE_CLICK,
+    RIGHT_CLICK,
+    PRESS_KEY,
+    UPLOAD_FILE,
+    EXECUTE_JAVASCRIPT;
+}
@@ -0,0 +1,10 @@
+package com.example.mcp.data;
+
+import java.util.List;
+
+public record BatchResult(
+        boolean completed,
+        List<BatchStepResult> steps,
+        long durationMillis
+) {
+}
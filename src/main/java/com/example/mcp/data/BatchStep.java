@@ -0,0 +1,25 @@
+package com.example.mcp.data;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.ai.tool.annotation.ToolParam;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record BatchStep(
+        @ToolParam(description = "Action to perform e.g NAVIGATE, CLICK, SEND_KEYS, GET_TEXT, HOVER, DOUBLE_CLICK, RIGHT_CLICK, PRESS_KEY, UPLOAD_FILE, EXECUTE_JAVASCRIPT")
+        @JsonProperty("action")
+        BatchAction action,
+        @ToolParam(description = "Method name to locate web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText, ref etc.", required = false)
+        @JsonProperty("findBy")
+        LocatorStrategy findBy,
+        @ToolParam(description = "Locator value of web element", required = false)
+        @JsonProperty("locatorValue")
+        String locatorValue,
+        @ToolParam(description = "Input of the action: url for NAVIGATE, text for SEND_KEYS, key name for PRESS_KEY, file path for UPLOAD_FILE, script for EXECUTE_JAVASCRIPT", required = false)
+        @JsonProperty("input")
+        String input,
+        @ToolParam(description = "Timeout value in seconds to wait for web element", required = false)
+        @JsonProperty("timeout")
+        Long timeout
+) {
+}
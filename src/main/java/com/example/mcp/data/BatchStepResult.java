@@ -0,0 +1,10 @@
+package com.example.mcp.data;
+
+public record BatchStepResult(
+        int step,
+        BatchAction action,
+        boolean success,
+        String result,
+        long durationMillis
+) {
+}
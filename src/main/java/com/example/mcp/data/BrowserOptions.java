@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.ai.tool.annotation.ToolParam;
 
 import java.util.List;
+import java.util.Objects;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public record BrowserOptions(
@@ -13,6 +14,46 @@ public record BrowserOptions(
         boolean headless,
         @ToolParam(description = "browser arguments e.g --start-maximized, --start-fullscreen etc.")
         @JsonProperty("arguments")
-        List<String> arguments
+        List<String> arguments,
+        @ToolParam(description = "when navigation returns: normal (load event), eager (DOM ready) or none. Defaults to normal", required = false)
+        @JsonProperty("pageLoadStrategy")
+        PageLoadStrategy pageLoadStrategy,
+        @ToolParam(description = "url patterns of requests to block, * matches any characters e.g *.doubleclick.net/*, *analytics*", required = false)
+        @JsonProperty("blockedUrls")
+        List<String> blockedUrls,
+        @ToolParam(description = "resource types to block e.g image, media, font", required = false)
+        @JsonProperty("blockedResourceTypes")
+        List<ResourceType> blockedResourceTypes,
+        @ToolParam(description = "name of a persistent profile that keeps cookies, storage and the disk cache across sessions", required = false)
+        @JsonProperty("profile")
+        String profile,
+        @ToolParam(description = "start from a throwaway copy of the profile instead of the profile itself, allows parallel sessions of one profile", required = false)
+        @JsonProperty("cloneProfile")
+        Boolean cloneProfile
 ) {
+
+    public BrowserOptions(boolean headless, List<String> arguments) {
+        this(headless, arguments, null, null, null, null, null);
+    }
+
+    /**
+     * Returns options that compare equal whenever they launch the same browser: arguments are trimmed,
+     * de-duplicated and sorted, and missing values are replaced by defaults. Request blocking is applied to
+     * the session after launch and is left out.
+     */
+    public static BrowserOptions normalize(BrowserOptions options) {
+        if (options == null)
+            return new BrowserOptions(false, List.of(), PageLoadStrategy.normal, List.of(), List.of(), null, false);
+        List<String> arguments = options.arguments() == null ? List.of() : options.arguments().stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(argument -> !argument.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+        PageLoadStrategy pageLoadStrategy = options.pageLoadStrategy() == null ? PageLoadStrategy.normal : options.pageLoadStrategy();
+        String profile = options.profile() == null || options.profile().isBlank() ? null : options.profile().trim();
+        return new BrowserOptions(options.headless(), arguments, pageLoadStrategy, List.of(), List.of(),
+                profile, Boolean.TRUE.equals(options.cloneProfile()));
+    }
 }
@@ -0,0 +1,12 @@
+package com.example.mcp.data;
+
+public enum ConditionType {
+    ELEMENT_VISIBLE,
+    ELEMENT_GONE,
+    TEXT_PRESENT,
+    URL_CONTAINS,
+    TITLE_CONTAINS,
+    NETWORK_IDLE,
+    DOM_STABLE,
+    CONSOLE_ERROR
+}
@@ -0,0 +1,20 @@
+package com.example.mcp.data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extraction result of a crawled url. A page that loaded but had no matching row is still a success, with a warning
+ * since it cannot be told apart from a page that did not render in time or whose markup changed.
+ */
+public record CrawlPageResult(
+        int index,
+        String url,
+        boolean success,
+        int totalRows,
+        List<Map<String, Object>> rows,
+        String error,
+        String warning,
+        long durationMillis
+) {
+}
@@ -0,0 +1,16 @@
+package com.example.mcp.data;
+
+import java.util.List;
+
+/**
+ * Pages of a crawl in the order of the urls. {@code empty} counts the succeeded pages without any matching row.
+ */
+public record CrawlResult(
+        int succeeded,
+        int failed,
+        int empty,
+        List<CrawlPageResult> pages,
+        String error,
+        long durationMillis
+) {
+}
@@ -0,0 +1,19 @@
+package com.example.mcp.data;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.ai.tool.annotation.ToolParam;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ExtractField(
+        @ToolParam(description = "CSS selector relative to the row element, empty for the row element itself", required = false)
+        @JsonProperty("selector")
+        String selector,
+        @ToolParam(description = "What to read: text (default), html, or an attribute name e.g href, src, value, data-id", required = false)
+        @JsonProperty("attribute")
+        String attribute,
+        @ToolParam(description = "Return the values of all matches as a list instead of the first match only", required = false)
+        @JsonProperty("all")
+        Boolean all
+) {
+}
@@ -0,0 +1,13 @@
+package com.example.mcp.data;
+
+import java.util.List;
+import java.util.Map;
+
+public record ExtractResult(
+        int total,
+        int offset,
+        Integer nextOffset,
+        List<Map<String, Object>> rows,
+        String error
+) {
+}
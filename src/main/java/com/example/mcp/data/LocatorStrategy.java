@@ -8,6 +8,7 @@ public enum LocatorStrategy {
     tag,
     linkText,
     partialLinkText,
-    xpath;
+    xpath,
+    ref;
 
 }
@@ -0,0 +1,13 @@
+package com.example.mcp.data;
+
+/**
+ * Payload of the log notification sent for a page event.
+ */
+public record PageEvent(
+        PageEventType type,
+        String sessionId,
+        String message,
+        String url,
+        long timestamp
+) {
+}
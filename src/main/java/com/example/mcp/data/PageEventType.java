@@ -0,0 +1,12 @@
+package com.example.mcp.data;
+
+/**
+ * Page events pushed to a client subscribed through browser_subscribe.
+ */
+public enum PageEventType {
+    LOG,
+    CONSOLE_ERROR,
+    NETWORK_IDLE,
+    DOM_CHANGE,
+    NAVIGATION
+}
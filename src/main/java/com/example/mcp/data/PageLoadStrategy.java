@@ -0,0 +1,11 @@
+package com.example.mcp.data;
+
+/**
+ * When a navigation returns: after the load event (normal), after DOMContentLoaded (eager) or right after the
+ * response of the document arrived (none).
+ */
+public enum PageLoadStrategy {
+    normal,
+    eager,
+    none;
+}
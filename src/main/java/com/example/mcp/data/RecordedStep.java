@@ -0,0 +1,18 @@
+package com.example.mcp.data;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A step of a recording. {@code selector} is a CSS selector resolved from the element the step acted on,
+ * {@code findBy} and {@code locatorValue} are the locator the step was called with, left out for snapshot refs
+ * and when equal to the selector.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RecordedStep(
+        BatchAction action,
+        LocatorStrategy findBy,
+        String locatorValue,
+        String selector,
+        String input
+) {
+}
@@ -0,0 +1,17 @@
+package com.example.mcp.data;
+
+import java.util.List;
+
+/**
+ * Tool calls of a session recorded by browser_record and run again by browser_replay. The format is versioned,
+ * inputs may contain ${name} placeholders filled in from the variables of the replay.
+ */
+public record Recording(
+        int version,
+        String name,
+        long createdAt,
+        List<RecordedStep> steps
+) {
+
+    public static final int VERSION = 1;
+}
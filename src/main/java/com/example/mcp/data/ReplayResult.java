@@ -0,0 +1,12 @@
+package com.example.mcp.data;
+
+import java.util.List;
+
+public record ReplayResult(
+        boolean completed,
+        int fastPathSteps,
+        int fallbackSteps,
+        List<BatchStepResult> steps,
+        long durationMillis
+) {
+}
@@ -0,0 +1,41 @@
+package com.example.mcp.data;
+
+import java.util.List;
+
+/**
+ * Kinds of subresources that can be blocked. Recognized by the fetch destination of the request where the browser
+ * reports it, otherwise by its initiator type and finally by the file extension of the request url.
+ */
+public enum ResourceType {
+    image(List.of("image"), List.of("img", "image"),
+            "png", "jpg", "jpeg", "gif", "webp", "avif", "svg", "ico", "bmp"),
+    media(List.of("audio", "video", "track"), List.of("audio", "video", "track"),
+            "mp4", "webm", "ogg", "ogv", "mp3", "wav", "m4a", "m4v", "mov", "m3u8"),
+    font(List.of("font"), List.of(),
+            "woff", "woff2", "ttf", "otf", "eot");
+
+    private final List<String> destinations;
+    private final List<String> initiatorTypes;
+    private final String[] extensions;
+
+    ResourceType(List<String> destinations, List<String> initiatorTypes, String... extensions) {
+        this.destinations = destinations;
+        this.initiatorTypes = initiatorTypes;
+        this.extensions = extensions;
+    }
+
+    /**
+     * Fetch destinations of requests of this type, as reported by WebDriver BiDi.
+     */
+    public List<String> destinations() {
+        return destinations;
+    }
+
+    public List<String> initiatorTypes() {
+        return initiatorTypes;
+    }
+
+    public String[] extensions() {
+        return extensions.clone();
+    }
+}
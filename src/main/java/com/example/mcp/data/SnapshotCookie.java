@@ -0,0 +1,13 @@
+package com.example.mcp.data;
+
+public record SnapshotCookie(
+        String name,
+        String value,
+        String domain,
+        String path,
+        boolean secure,
+        boolean httpOnly,
+        String sameSite,
+        Long expiry
+) {
+}
@@ -0,0 +1,6 @@
+package com.example.mcp.data;
+
+public enum StorageAction {
+    SAVE,
+    RESTORE
+}
@@ -0,0 +1,19 @@
+package com.example.mcp.data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cookies of all sites plus the local and session storage of one origin, saved by browser_storage.
+ * The format is versioned, expiry is in seconds since the epoch and missing for session cookies.
+ */
+public record StorageSnapshot(
+        int version,
+        String origin,
+        List<SnapshotCookie> cookies,
+        Map<String, String> localStorage,
+        Map<String, String> sessionStorage
+) {
+
+    public static final int VERSION = 1;
+}
@@ -3,5 +3,8 @@ package com.example.mcp.data;
 public enum TabAction {
     CLOSE,
     SELECT,
-    NEW;
+    NEW,
+    LIST,
+    CLOSE_OTHERS,
+    OPEN_URLS;
 }
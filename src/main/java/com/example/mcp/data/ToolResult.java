@@ -0,0 +1,17 @@
+package com.example.mcp.data;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Envelope of every tool result. {@code result} is text or the JSON result of the tool, {@code continuation} is
+ * set when the result was cut at the size budget and names the handle to fetch the rest with browser_continue.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ToolResult(
+        String status,
+        String code,
+        Object result,
+        String continuation,
+        Integer remainingChars
+) {
+}
@@ -0,0 +1,22 @@
+package com.example.mcp.data;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.ai.tool.annotation.ToolParam;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record WaitCondition(
+        @ToolParam(description = "Condition e.g ELEMENT_VISIBLE, ELEMENT_GONE, TEXT_PRESENT, URL_CONTAINS, TITLE_CONTAINS, NETWORK_IDLE, DOM_STABLE, CONSOLE_ERROR")
+        @JsonProperty("type")
+        ConditionType type,
+        @ToolParam(description = "Method name to locate the element of ELEMENT_VISIBLE, ELEMENT_GONE and TEXT_PRESENT e.g cssSelector, xpath, id, ref etc. Defaults to cssSelector", required = false)
+        @JsonProperty("findBy")
+        LocatorStrategy findBy,
+        @ToolParam(description = "Locator value of the element, TEXT_PRESENT without a locator looks at the whole page", required = false)
+        @JsonProperty("locatorValue")
+        String locatorValue,
+        @ToolParam(description = "Text expected by TEXT_PRESENT, URL_CONTAINS and TITLE_CONTAINS", required = false)
+        @JsonProperty("text")
+        String text
+) {
+}
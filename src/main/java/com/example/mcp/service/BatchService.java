@@ -0,0 +1,71 @@
+package com.example.mcp.service;
+
+import com.example.mcp.data.BatchResult;
+import com.example.mcp.data.BatchStep;
+import com.example.mcp.data.BatchStepResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class BatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchService.class);
+
+    private final SessionManager sessionManager;
+    private final BrowserActions browserActions;
+    private final BrowserMetrics browserMetrics;
+
+    public BatchService(SessionManager sessionManager, BrowserActions browserActions, BrowserMetrics browserMetrics) {
+        this.sessionManager = sessionManager;
+        this.browserActions = browserActions;
+        this.browserMetrics = browserMetrics;
+    }
+
+    @Tool(name = "browser_batch", description = "Run an ordered list of browser actions in a single call and return the result and timing of every step")
+    public BatchResult runBatch(
+            @ToolParam(description = "Ordered list of steps to perform") List<BatchStep> steps,
+            @ToolParam(description = "Keep running the remaining steps when a step fails, default false", required = false) Boolean continueOnError,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
+    ) {
+        long batchStart = System.nanoTime();
+        List<BatchStepResult> results = new ArrayList<>();
+        boolean completed = true;
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            for (int i = 0; i < steps.size(); i++) {
+                BatchStep step = steps.get(i);
+                long stepStart = System.nanoTime();
+                try {
+                    String result = browserActions.execute(handle.session(), step);
+                    results.add(new BatchStepResult(i, step.action(), true, result, elapsedMillis(stepStart)));
+                } catch (Exception e) {
+                    String msg = String.format("Error in batch step %d %s [%s, %s]: %s", i, step.action(), step.findBy(), step.locatorValue(), e.getMessage());
+                    logger.info(msg);
+                    browserMetrics.recordError(e);
+                    results.add(new BatchStepResult(i, step.action(), false, msg, elapsedMillis(stepStart)));
+                    completed = false;
+                    if (!Boolean.TRUE.equals(continueOnError))
+                        break;
+                }
+            }
+        } catch (Exception e) {
+            String msg = "Error in running batch: " + e.getMessage();
+            logger.info(msg);
+            browserMetrics.recordError(e);
+            results.add(new BatchStepResult(results.size(), null, false, msg, 0));
+            completed = false;
+        }
+        return new BatchResult(completed, results, elapsedMillis(batchStart));
+    }
+
+    private long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,427 @@
+package com.example.mcp.service;
+
+import com.example.mcp.data.BatchAction;
+import com.example.mcp.data.BatchStep;
+import com.example.mcp.data.ExtractField;
+import com.example.mcp.data.ExtractResult;
+import com.example.mcp.data.LocatorStrategy;
+import com.example.mcp.data.RecordedStep;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Actions;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Element and page actions shared by the single-step tools, the batch pipeline and replays. Callers hold the session
+ * lock, failures are thrown and turned into tool messages by the caller. While a session records, the actions that
+ * change the page are added to its recording along with a selector resolved from the element they acted on.
+ */
+@Component
+public class BrowserActions {
+
+    private static final String PAGE_SOURCE_SCRIPT = Scripts.load("page-source.js");
+    private static final String SNAPSHOT_SCRIPT = Scripts.load("snapshot.js");
+    private static final String EXTRACT_SCRIPT = Scripts.load("extract.js");
+    private static final String SELECTOR_SCRIPT = Scripts.load("selector.js");
+    private static final int DEFAULT_EXTRACT_LIMIT = 100;
+
+    private final WaitEngine waitEngine;
+    private final BrowserMetrics browserMetrics;
+
+    public BrowserActions(WaitEngine waitEngine, BrowserMetrics browserMetrics) {
+        this.waitEngine = waitEngine;
+        this.browserMetrics = browserMetrics;
+    }
+
+    public String navigate(BrowserSession session, String url) {
+        WebDriver driver = session.getDriver();
+        if (!url.contains("://")) {
+            url = "https://" + url;
+        }
+        session.resetPageState();
+        driver.get(url);
+        record(session, BatchAction.NAVIGATE, null, null, url, null);
+        return "Successfully navigated to " + url;
+    }
+
+    public String click(BrowserSession session, LocatorStrategy findBy, String value, Long timeout) {
+        Duration waitTimeout = waitEngine.timeout("browser_click", timeout);
+        return perform(session, "click", () -> {
+            WebElement element = findElement(session, findBy, value, waitTimeout);
+            waitEngine.untilElement(session.getDriver(), ExpectedConditions.elementToBeClickable(element), waitTimeout);
+            element.click();
+            record(session, BatchAction.CLICK, findBy, value, null, element);
+            return "Element clicked successfully.";
+        });
+    }
+
+    public String sendKeys(BrowserSession session, LocatorStrategy findBy, String locatorValue, String text, Long timeout) {
+        return perform(session, "send_keys", () -> {
+            WebElement element = findElement(session, findBy, locatorValue, waitEngine.timeout("browser_send_keys", timeout));
+            element.clear();
+            element.sendKeys(text);
+            record(session, BatchAction.SEND_KEYS, findBy, locatorValue, text, element);
+            return "Entered text into web element: " + text;
+        });
+    }
+
+    public String getText(BrowserSession session, LocatorStrategy findBy, String locatorValue, Long timeout) {
+        return perform(session, "get_text", () -> findElement(session, findBy, locatorValue, waitEngine.timeout("browser_get_text", timeout)).getText());
+    }
+
+    public String hover(BrowserSession session, LocatorStrategy findBy, String locatorValue, Long timeout) {
+        return perform(session, "hover", () -> {
+            WebElement element = findElement(session, findBy, locatorValue, waitEngine.timeout("browser_hover", timeout));
+            Actions actions = new Actions(session.getDriver());
+            actions.moveToElement(element).perform();
+            record(session, BatchAction.HOVER, findBy, locatorValue, null, element);
+            return "Moved mouse on the web element";
+        });
+    }
+
+    public String dragAndDrop(BrowserSession session, LocatorStrategy sourceFindBy, String sourceLocatorValue,
+                              LocatorStrategy targetFindBy, String targetLocatorValue, Long timeout) {
+        Duration waitTimeout = waitEngine.timeout("browser_drag_and_drop", timeout);
+        return perform(session, "drag_and_drop", () -> {
+            WebElement source = findElement(session, sourceFindBy, sourceLocatorValue, waitTimeout);
+            WebElement target = findElement(session, targetFindBy, targetLocatorValue, waitTimeout);
+            Actions actions = new Actions(session.getDriver());
+            actions.dragAndDrop(source, target).perform();
+            return "Source element dragged to target element successfully";
+        });
+    }
+
+    public String doubleClick(BrowserSession session, LocatorStrategy findBy, String locatorValue, Long timeout) {
+        return perform(session, "double_click", () -> {
+            WebElement element = findElement(session, findBy, locatorValue, waitEngine.timeout("browser_double_click", timeout));
+            Actions actions = new Actions(session.getDriver());
+            actions.doubleClick(element).perform();
+            record(session, BatchAction.DOUBLE_CLICK, findBy, locatorValue, null, element);
+            return "Double click performed successfully on the web element";
+        });
+    }
+
+    public String rightClick(BrowserSession session, LocatorStrategy findBy, String locatorValue, Long timeout) {
+        return perform(session, "right_click", () -> {
+            WebElement element = findElement(session, findBy, locatorValue, waitEngine.timeout("browser_right_click", timeout));
+            Actions actions = new Actions(session.getDriver());
+            actions.contextClick(element).perform();
+            record(session, BatchAction.RIGHT_CLICK, findBy, locatorValue, null, element);
+            return "Right click performed successfully on the web element";
+        });
+    }
+
+    public String pressKey(BrowserSession session, LocatorStrategy findBy, String locatorValue, Keys key, Long timeout) {
+        return perform(session, "press_key", () -> {
+            WebElement element = findElement(session, findBy, locatorValue, waitEngine.timeout("browser_press_key", timeout));
+            element.sendKeys(key);
+            record(session, BatchAction.PRESS_KEY, findBy, locatorValue, key.name(), element);
+            return String.format("Keyboard key '%s' pressed successfully to the web element", key);
+        });
+    }
+
+    public String uploadFile(BrowserSession session, LocatorStrategy findBy, String locatorValue, String filePath, Long timeout) {
+        return perform(session, "upload_file", () -> {
+            WebElement element = findElement(session, findBy, locatorValue, waitEngine.timeout("browser_upload_file", timeout));
+            element.sendKeys(filePath);
+            record(session, BatchAction.UPLOAD_FILE, findBy, locatorValue, filePath, element);
+            return "File has been uploaded to the input web element";
+        });
+    }
+
+    public String executeScript(BrowserSession session, String script, LocatorStrategy findBy, String locatorValue) {
+        JavascriptExecutor executor = (JavascriptExecutor) session.getDriver();
+        if (script.contains("arguments[")) {
+            if (findBy == null || locatorValue == null || locatorValue.isEmpty()) {
+                return "locator strategy and locator value must be provided for parameterised javascript execution";
+            }
+            Duration waitTimeout = waitEngine.timeout("browser_execute_javascript", null);
+            perform(session, "execute_javascript", () -> {
+                WebElement element = findElement(session, findBy, locatorValue, waitTimeout);
+                Object result = executor.executeScript(script, element);
+                record(session, BatchAction.EXECUTE_JAVASCRIPT, findBy, locatorValue, script, element);
+                return result;
+            });
+        } else {
+            executor.executeScript(script);
+            record(session, BatchAction.EXECUTE_JAVASCRIPT, null, null, script, null);
+        }
+        return "Javascript executed successfully";
+    }
+
+    /**
+     * Runs a step of a batch or replay.
+     */
+    public String execute(BrowserSession session, BatchStep step) {
+        if (step.action() == null)
+            throw new IllegalArgumentException("Batch step action is required");
+        return switch (step.action()) {
+            case NAVIGATE -> navigate(session, step.input());
+            case CLICK -> click(session, step.findBy(), step.locatorValue(), step.timeout());
+            case SEND_KEYS -> sendKeys(session, step.findBy(), step.locatorValue(), step.input(), step.timeout());
+            case GET_TEXT -> getText(session, step.findBy(), step.locatorValue(), step.timeout());
+            case HOVER -> hover(session, step.findBy(), step.locatorValue(), step.timeout());
+            case DOUBLE_CLICK -> doubleClick(session, step.findBy(), step.locatorValue(), step.timeout());
+            case RIGHT_CLICK -> rightClick(session, step.findBy(), step.locatorValue(), step.timeout());
+            case PRESS_KEY -> pressKey(session, step.findBy(), step.locatorValue(), key(step.input()), step.timeout());
+            case UPLOAD_FILE -> uploadFile(session, step.findBy(), step.locatorValue(), step.input(), step.timeout());
+            case EXECUTE_JAVASCRIPT -> executeScript(session, step.input(), step.findBy(), step.locatorValue());
+        };
+    }
+
+    private Keys key(String name) {
+        if (name == null || name.isBlank())
+            throw new IllegalArgumentException("A key name is required as input of PRESS_KEY e.g ENTER, TAB, ESCAPE");
+        try {
+            return Keys.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown key " + name + ", use one of Keys e.g ENTER, TAB, ESCAPE, ARROW_DOWN, CONTROL");
+        }
+    }
+
+    /**
+     * Captures the viewport, or a single element when a locator is given, as PNG bytes kept in memory.
+     */
+    public byte[] screenshot(BrowserSession session, LocatorStrategy findBy, String locatorValue) {
+        if (findBy == null || locatorValue == null || locatorValue.isEmpty())
+            return ((TakesScreenshot) session.getDriver()).getScreenshotAs(OutputType.BYTES);
+        Duration waitTimeout = waitEngine.timeout("browser_take_screenshot", null);
+        return perform(session, "screenshot", () -> findElement(session, findBy, locatorValue, waitTimeout).getScreenshotAs(OutputType.BYTES));
+    }
+
+    /**
+     * Serializes the page in the browser and returns only the requested slice, prefixed by a header line with the
+     * content hash and the offset to continue from. A matching {@code knownHash} short-circuits to "not modified".
+     */
+    public String pageSource(BrowserSession session, String selector, boolean stripBoilerplate, Integer offset, Integer maxLength, String knownHash) {
+        WebDriver driver = session.getDriver();
+        Map<?, ?> result = (Map<?, ?>) ((JavascriptExecutor) driver).executeScript(
+                PAGE_SOURCE_SCRIPT, selector, stripBoilerplate, offset, maxLength, knownHash);
+        String hash = (String) result.get("hash");
+        long total = ((Number) result.get("total")).longValue();
+        if (Boolean.TRUE.equals(result.get("notModified")))
+            return String.format("hash=%s total=%d not modified", hash, total);
+
+        String content = (String) result.get("content");
+        long start = ((Number) result.get("offset")).longValue();
+        long end = start + content.length();
+        String next = end < total ? String.valueOf(end) : "none";
+        return String.format("hash=%s total=%d offset=%d next_offset=%s%n%s", hash, total, start, next, content);
+    }
+
+    /**
+     * Captures the visible interactive elements as an indented outline, one line per element with its role, name,
+     * ref and bounds. The refs are kept in the session and can be used with the {@code ref} locator strategy.
+     */
+    public String snapshot(BrowserSession session, String selector, Integer maxNodes) {
+        WebDriver driver = session.getDriver();
+        Map<?, ?> result = (Map<?, ?>) ((JavascriptExecutor) driver).executeScript(SNAPSHOT_SCRIPT, selector, maxNodes);
+        List<?> nodes = (List<?>) result.get("nodes");
+        List<?> elements = (List<?>) result.get("elements");
+
+        Map<String, WebElement> refs = new HashMap<>();
+        StringBuilder outline = new StringBuilder();
+        for (int i = 0; i < nodes.size(); i++) {
+            Map<?, ?> node = (Map<?, ?>) nodes.get(i);
+            refs.put((String) node.get("ref"), (WebElement) elements.get(i));
+            outline.append("  ".repeat(((Number) node.get("depth")).intValue()))
+                    .append("- ").append(node.get("role"));
+            String name = (String) node.get("name");
+            if (name != null && !name.isEmpty())
+                outline.append(" \"").append(name).append('"');
+            if (node.get("value") != null)
+                outline.append(" value=\"").append(node.get("value")).append('"');
+            if (Boolean.TRUE.equals(node.get("valueSet")))
+                outline.append(" [value set]");
+            if (Boolean.TRUE.equals(node.get("checked")))
+                outline.append(" [checked]");
+            if (Boolean.TRUE.equals(node.get("disabled")))
+                outline.append(" [disabled]");
+            outline.append(String.format(" [ref=%s] [%s,%s %sx%s]%n",
+                    node.get("ref"), node.get("x"), node.get("y"), node.get("w"), node.get("h")));
+        }
+        session.replaceElementRefs(refs);
+
+        if (Boolean.TRUE.equals(result.get("truncated")))
+            outline.append("... truncated, narrow the snapshot with a selector or raise maxNodes").append(System.lineSeparator());
+        return outline.isEmpty() ? "No visible interactive elements found" : outline.toString();
+    }
+
+    /**
+     * Reads the given fields of every element matching the row locator, one page of rows at a time. All fields
+     * of all rows of the page are read by a single script execution.
+     */
+    public ExtractResult extract(BrowserSession session, LocatorStrategy findBy, String locatorValue,
+                                 Map<String, ExtractField> fields, Integer offset, Integer limit, Long timeout) {
+        return extract(session, findBy, locatorValue, fields, offset, limit, waitEngine.timeout("browser_extract", timeout));
+    }
+
+    public ExtractResult extract(BrowserSession session, LocatorStrategy findBy, String locatorValue,
+                                 Map<String, ExtractField> fields, Integer offset, Integer limit, Duration waitTimeout) {
+        if (fields == null || fields.isEmpty())
+            throw new IllegalArgumentException("At least one field to extract is required");
+        int start = offset == null ? 0 : Math.max(0, offset);
+        int pageSize = limit == null || limit <= 0 ? DEFAULT_EXTRACT_LIMIT : limit;
+        List<Map<String, Object>> specs = new ArrayList<>();
+        fields.forEach((name, field) -> {
+            Map<String, Object> spec = new HashMap<>();
+            spec.put("name", name);
+            spec.put("selector", field.selector());
+            spec.put("attribute", field.attribute());
+            spec.put("all", Boolean.TRUE.equals(field.all()));
+            specs.add(spec);
+        });
+        return perform(session, "extract", () -> {
+            List<WebElement> rows = findElements(session, findBy, locatorValue, waitTimeout);
+            int from = Math.min(start, rows.size());
+            int to = Math.min(from + pageSize, rows.size());
+            List<?> values = (List<?>) ((JavascriptExecutor) session.getDriver()).executeScript(
+                    EXTRACT_SCRIPT, rows.subList(from, to), specs);
+            List<Map<String, Object>> result = new ArrayList<>(values.size());
+            for (Object value : values) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                // keep the field order of the request
+                fields.keySet().forEach(name -> row.put(name, ((Map<?, ?>) value).get(name)));
+                result.add(row);
+            }
+            return new ExtractResult(rows.size(), from, to < rows.size() ? to : null, result, null);
+        });
+    }
+
+    public By getLocator(LocatorStrategy by, String value) {
+        switch (by) {
+            case id: return By.id(value);
+            case className: return By.className(value);
+            case cssSelector: return By.cssSelector(value);
+            case name: return By.name(value);
+            case tag: return By.tagName(value);
+            case linkText: return By.linkText(value);
+            case partialLinkText: return By.partialLinkText(value);
+            case xpath: return By.xpath(value);
+            case ref: throw new IllegalArgumentException("Element refs are resolved from the last snapshot and have no locator: " + value);
+            default: throw new IllegalArgumentException("No such locator strategy exist for locating web element: " + by);
+        }
+    }
+
+    /**
+     * Resolves an element from the snapshot refs, the session's locator cache or, on a miss, by waiting for it
+     * to become visible. The element returned by the wait is cached, so a repeated lookup costs no driver command.
+     */
+    public WebElement findElement(BrowserSession session, LocatorStrategy by, String value, Duration timeout) {
+        long start = System.nanoTime();
+        boolean cached = true;
+        try {
+            if (by == LocatorStrategy.ref) {
+                WebElement element = session.getElementRef(value);
+                if (element == null)
+                    throw new IllegalArgumentException("Unknown element ref " + value + ", take a new browser_snapshot");
+                return element;
+            }
+            WebElement element = session.getCachedElement(by, value);
+            if (element != null)
+                return element;
+            cached = false;
+            By locator = getLocator(by, value);
+            element = waitEngine.until(session.getDriver(), ExpectedConditions.visibilityOfElementLocated(locator), timeout);
+            session.cacheElement(by, value, element);
+            return element;
+        } finally {
+            long waited = System.nanoTime() - start;
+            session.addWaitNanos(waited);
+            browserMetrics.recordWait(by, cached, waited);
+        }
+    }
+
+    /**
+     * Waits until at least one element matches and returns all matches, or an empty list when none showed up
+     * within the timeout. Matches are not cached.
+     */
+    public List<WebElement> findElements(BrowserSession session, LocatorStrategy by, String value, Duration timeout) {
+        long start = System.nanoTime();
+        try {
+            if (by == LocatorStrategy.ref) {
+                WebElement element = session.getElementRef(value);
+                return element == null ? List.of() : List.of(element);
+            }
+            By locator = getLocator(by, value);
+            return waitEngine.until(session.getDriver(), driver -> {
+                List<WebElement> elements = driver.findElements(locator);
+                return elements.isEmpty() ? null : elements;
+            }, timeout);
+        } catch (TimeoutException e) {
+            return List.of();
+        } finally {
+            long waited = System.nanoTime() - start;
+            session.addWaitNanos(waited);
+            browserMetrics.recordWait(by, false, waited);
+        }
+    }
+
+    private void record(BrowserSession session, BatchAction action, LocatorStrategy findBy, String locatorValue,
+                        String input, WebElement element) {
+        if (!session.isRecording())
+            return;
+        String selector = null;
+        if (element != null) {
+            try {
+                selector = (String) ((JavascriptExecutor) session.getDriver()).executeScript(SELECTOR_SCRIPT, element);
+            } catch (WebDriverException e) {
+                // the page navigated away, the step is replayed with the locator it was called with
+            }
+        }
+        // snapshot refs do not outlive the snapshot, a locator equal to the selector adds nothing
+        if (findBy == LocatorStrategy.ref || (findBy == LocatorStrategy.cssSelector && locatorValue != null && locatorValue.equals(selector))) {
+            findBy = null;
+            locatorValue = null;
+        }
+        String masked = session.maskRecorded(input);
+        // text typed into a password field is never stored, the replay has to pass it as the password variable
+        if (action == BatchAction.SEND_KEYS && masked != null && masked.equals(input) && isPasswordField(element))
+            masked = "${password}";
+        session.record(new RecordedStep(action, findBy, locatorValue, selector, masked));
+    }
+
+    private boolean isPasswordField(WebElement element) {
+        try {
+            return element != null && "password".equalsIgnoreCase(element.getDomAttribute("type"));
+        } catch (WebDriverException e) {
+            // a field that cannot be checked any more is treated as one, the text is not stored
+            return true;
+        }
+    }
+
+    /**
+     * Runs an element action and, if a cached element turned out to be stale, drops the cache and runs it once more
+     * against freshly located elements. The time not spent waiting for elements is recorded as action time.
+     */
+    private <T> T perform(BrowserSession session, String name, Supplier<T> action) {
+        session.resetWaitNanos();
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } catch (StaleElementReferenceException e) {
+            session.clearElementCache();
+            return action.get();
+        } finally {
+            browserMetrics.recordAction(name, System.nanoTime() - start - session.getWaitNanos());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.mcp.service;
+
+import com.example.mcp.data.LocatorStrategy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer instrumentation of the browser tools, also summarized by the browser_stats tool.
+ * <ul>
+ *     <li>{@code mcp.tool.calls} latency per tool and outcome</li>
+ *     <li>{@code mcp.tool.errors} errors per tool and exception type</li>
+ *     <li>{@code mcp.browser.element.wait} time spent locating elements per locator strategy</li>
+ *     <li>{@code mcp.browser.element.action} time spent acting on located elements per action</li>
+ *     <li>{@code mcp.browser.driver.lease} driver startup time of browser_open, warm or cold</li>
+ *     <li>{@code mcp.browser.sessions.active} open browser sessions</li>
+ *     <li>{@code mcp.browser.sessions.reaped} sessions closed by the server per reason</li>
+ *     <li>{@code mcp.http.rejected} HTTP requests turned away by the connection limits per reason</li>
+ * </ul>
+ */
+@Service
+public class BrowserMetrics {
+
+    private static final String TOOL_CALLS = "mcp.tool.calls";
+    private static final String TOOL_ERRORS = "mcp.tool.errors";
+    private static final String ELEMENT_WAIT = "mcp.browser.element.wait";
+    private static final String ELEMENT_ACTION = "mcp.browser.element.action";
+    private static final String DRIVER_LEASE = "mcp.browser.driver.lease";
+    private static final String SESSIONS_REAPED = "mcp.browser.sessions.reaped";
+    private static final String HTTP_REJECTED = "mcp.http.rejected";
+
+    // tools catch their exceptions and return a message, the error is handed to the surrounding call through this
+    private static final ThreadLocal<Exception> lastError = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+
+    public BrowserMetrics(MeterRegistry registry, SessionManager sessionManager) {
+        this.registry = registry;
+        Gauge.builder("mcp.browser.sessions.active", sessionManager, manager -> manager.getSessions().size())
+                .description("Open browser sessions")
+                .register(registry);
+    }
+
+    /**
+     * Marks the running tool call as failed, called from the catch block of a tool.
+     */
+    public void recordError(Exception e) {
+        lastError.set(e);
+    }
+
+    /**
+     * The error reported by the running tool call so far, if any.
+     */
+    Exception currentError() {
+        return lastError.get();
+    }
+
+    /**
+     * Records a tool call, failed if it threw or reported an error through {@link #recordError(Exception)}.
+     */
+    void recordToolCall(String tool, long durationNanos, Exception thrown) {
+        Exception error = thrown != null ? thrown : lastError.get();
+        lastError.remove();
+        timer(TOOL_CALLS, "tool", tool, "outcome", error == null ? "success" : "error")
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        if (error != null)
+            Counter.builder(TOOL_ERRORS)
+                    .tags("tool", tool, "exception", error.getClass().getSimpleName())
+                    .register(registry)
+                    .increment();
+    }
+
+    void recordWait(LocatorStrategy strategy, boolean cached, long durationNanos) {
+        timer(ELEMENT_WAIT, "strategy", String.valueOf(strategy), "cached", String.valueOf(cached))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordAction(String action, long durationNanos) {
+        timer(ELEMENT_ACTION, "action", action).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordLease(String browser, boolean warm, long durationNanos) {
+        timer(DRIVER_LEASE, "browser", browser, "warm", String.valueOf(warm)).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordReap(String reason) {
+        Counter.builder(SESSIONS_REAPED).tag("reason", reason).register(registry).increment();
+    }
+
+    void recordRejectedRequest(String reason) {
+        Counter.builder(HTTP_REJECTED).tag("reason", reason).register(registry).increment();
+    }
+
+    @Tool(name = "browser_stats", description = "Summary of tool latencies, element wait and action times, driver startup times, errors and active sessions")
+    public String stats() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("active sessions: ")
+                .append((long) registry.get("mcp.browser.sessions.active").gauge().value())
+                .append(System.lineSeparator());
+        for (String name : new String[]{TOOL_CALLS, ELEMENT_WAIT, ELEMENT_ACTION, DRIVER_LEASE}) {
+            registry.find(name).timers().stream()
+                    .filter(timer -> timer.count() > 0)
+                    .sorted(Comparator.comparing(timer -> timer.getId().getTags().toString()))
+                    .forEach(timer -> summary.append(describe(timer)).append(System.lineSeparator()));
+        }
+        for (String name : new String[]{TOOL_ERRORS, SESSIONS_REAPED, HTTP_REJECTED})
+            registry.find(name).counters().forEach(counter -> summary.append(String.format("%s %s count=%d%n",
+                    name, tags(counter.getId()), (long) counter.count())));
+        return summary.toString();
+    }
+
+    private Timer timer(String name, String... tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentiles(0.5, 0.95)
+                .register(registry);
+    }
+
+    private String describe(Timer timer) {
+        StringBuilder line = new StringBuilder(String.format("%s %s count=%d mean=%.1fms max=%.1fms",
+                timer.getId().getName(), tags(timer.getId()), timer.count(),
+                timer.mean(TimeUnit.MILLISECONDS), timer.max(TimeUnit.MILLISECONDS)));
+        for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues())
+            line.append(String.format(" p%d=%.1fms", Math.round(percentile.percentile() * 100),
+                    percentile.value(TimeUnit.MILLISECONDS)));
+        return line.toString();
+    }
+
+    private String tags(Meter.Id id) {
+        StringBuilder tags = new StringBuilder("{");
+        id.getTags().forEach(tag -> tags.append(tags.length() > 1 ? "," : "").append(tag.getKey()).append('=').append(tag.getValue()));
+        return tags.append('}').toString();
+    }
+}
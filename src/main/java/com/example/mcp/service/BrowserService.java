@@ -3,323 +3,388 @@ package com.example.mcp.service;
 import com.example.mcp.data.Browser;
 import com.example.mcp.data.BrowserOptions;
 import com.example.mcp.data.LocatorStrategy;
+import com.example.mcp.data.ResourceType;
 import com.example.mcp.data.TabAction;
 import jakarta.annotation.PreDestroy;
 import org.openqa.selenium.*;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.firefox.FirefoxDriver;
-import org.openqa.selenium.firefox.FirefoxOptions;
-import org.openqa.selenium.interactions.Actions;
-import org.openqa.selenium.safari.SafariDriver;
-import org.openqa.selenium.safari.SafariOptions;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ToolContext;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.stereotype.Service;
-import org.springframework.util.FileCopyUtils;
 
-import java.io.File;
-import java.nio.file.Paths;
+import java.nio.file.Path;
 import java.time.Duration;
-import java.util.Map;
-import java.util.Set;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Base64;
+import java.util.List;
 
 @Service
 public class BrowserService {
 
     private static final Logger logger = LoggerFactory.getLogger(BrowserService.class);
 
-    private Map<String, WebDriver> browserSessions = new ConcurrentHashMap<>();
-    private String currentSession;
+    private final WebDriverPool driverPool;
+    private final SessionManager sessionManager;
+    private final BrowserActions browserActions;
+    private final ScreenshotWriter screenshotWriter;
+    private final BrowserMetrics browserMetrics;
+    private final SessionReaper sessionReaper;
+    private final NetworkFilter networkFilter;
+    private final PageEvents pageEvents;
+    private final TabManager tabManager;
+
+    public BrowserService(WebDriverPool driverPool, SessionManager sessionManager, BrowserActions browserActions,
+                          ScreenshotWriter screenshotWriter, BrowserMetrics browserMetrics, SessionReaper sessionReaper,
+                          NetworkFilter networkFilter, PageEvents pageEvents, TabManager tabManager) {
+        this.driverPool = driverPool;
+        this.sessionManager = sessionManager;
+        this.sessionReaper = sessionReaper;
+        this.networkFilter = networkFilter;
+        this.pageEvents = pageEvents;
+        this.tabManager = tabManager;
+        this.browserActions = browserActions;
+        this.screenshotWriter = screenshotWriter;
+        this.browserMetrics = browserMetrics;
+    }
 
     @Tool(name = "browser_open", description = "Open the browser by its name")
     public String openBrowser(
             @ToolParam(description = "Name of the browser e.g chrome, firefox") Browser browserName,
-            @ToolParam(description = "Browser options e.g headless, arguments etc.") BrowserOptions options
+            @ToolParam(description = "Browser options e.g headless, arguments etc.") BrowserOptions options,
+            ToolContext toolContext
             ) {
         try {
-            WebDriver driver;
-            switch (browserName) {
-                case chrome -> {
-                    ChromeOptions chromeOptions = new ChromeOptions();
-                    if (options.headless())
-                        chromeOptions.addArguments("--headless=new");
-                    options.arguments().forEach(chromeOptions::addArguments);
-                    driver = new ChromeDriver(chromeOptions);
-                }
-                case firefox -> {
-                    FirefoxOptions firefoxOptions = new FirefoxOptions();
-                    if (options.headless())
-                        firefoxOptions.addArguments("--headless");
-                    options.arguments().forEach(firefoxOptions::addArguments);
-                    driver = new FirefoxDriver(firefoxOptions);
-                }
-                case safari -> {
-                    SafariOptions safariOptions = new SafariOptions();
-                    driver = new SafariDriver(safariOptions);
+            sessionReaper.evictLeastRecentlyUsed();
+            BrowserSession session = sessionManager.open(browserName, () -> driverPool.lease(browserName, options), toolContext);
+            if (options != null && (options.blockedUrls() != null || options.blockedResourceTypes() != null)) {
+                try (BrowserSession.Handle handle = session.acquire()) {
+                    networkFilter.apply(handle.session(), options.blockedUrls(), options.blockedResourceTypes());
+                } catch (RuntimeException e) {
+                    sessionManager.remove(session);
+                    driverPool.release(session.getDriver());
+                    throw e;
                 }
-                default -> throw new IllegalArgumentException("Browser not supported: " + browserName);
             }
-
-            String session =  String.format("%s-%s", browserName, UUID.randomUUID().toString());
-            browserSessions.put(session, driver);
-            currentSession = session;
-            return "Browser started successfully with session_id: " + session;
+            return "Browser started successfully with session_id: " + session.getId();
         } catch (Exception e) {
             String msg = "Error in starting browser: " + e.getMessage();
             logger.info(msg);
+            browserMetrics.recordError(e);
             return msg;
         }
     }
 
     @Tool(name = "browser_close", description = "Close the browser")
-    public String closeBrowser() {
+    public String closeBrowser(
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
+    ) {
         try {
-            getDriver().quit();
-            return "Browser session closed successfully with id: " + currentSession;
+            BrowserSession session = sessionManager.resolve(sessionId, toolContext);
+            try (BrowserSession.Handle handle = sessionManager.acquire(session.getId(), toolContext)) {
+                networkFilter.clear(session);
+                pageEvents.release(session);
+                sessionManager.remove(session);
+                driverPool.release(handle.driver());
+            }
+            return "Browser session closed successfully with id: " + session.getId();
         } catch (Exception e) {
             String msg = "Error in closing browser session: " + e.getMessage();
             logger.info(msg);
+            browserMetrics.recordError(e);
             return msg;
-        } finally {
-            if (currentSession != null)
-                browserSessions.remove(currentSession);
-            currentSession = null;
         }
     }
 
     @Tool(name = "browser_navigate", description = "Navigate to the url")
-    public String browserNavigate(@ToolParam(description = "Url of web page to navigate to") String url) {
-        try {
-            if (!url.contains("://")) {
-                url = "https://" + url;
-            }
-            getDriver().get(url);
-            return "Successfully navigated to " + url;
+    public String browserNavigate(
+            @ToolParam(description = "Url of web page to navigate to") String url,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
+    ) {
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            return browserActions.navigate(handle.session(), url);
         } catch (Exception e) {
             String msg = "Error while navigating to url " + url + " : " + e.getMessage();
             logger.info(msg);
+            browserMetrics.recordError(e);
+            return msg;
+        }
+    }
+
+    @Tool(name = "browser_network", description = "Block requests of the browser session by url pattern or resource type. "
+            + "Pass empty lists to stop blocking")
+    public String blockRequests(
+            @ToolParam(description = "Url patterns of requests to block, * matches any characters e.g *.doubleclick.net/*, *analytics*", required = false) List<String> blockedUrls,
+            @ToolParam(description = "Resource types to block e.g image, media, font. Recognized by the request destination, "
+                    + "by url extension only when the browser does not report it (no WebDriver BiDi)", required = false) List<ResourceType> blockedResourceTypes,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
+    ) {
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            int patterns = networkFilter.apply(handle.session(), blockedUrls, blockedResourceTypes);
+            return patterns == 0 ? "Request blocking disabled" : "Blocking requests matching " + patterns + " url patterns";
+        } catch (Exception e) {
+            String msg = "Error in setting blocked requests: " + e.getMessage();
+            logger.info(msg);
+            browserMetrics.recordError(e);
             return msg;
         }
     }
 
     @Tool(name = "browser_click", description = "Click on a web element")
     public String browserClick(
-            @ToolParam(description = "Method name to locate web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText etc.") LocatorStrategy findBy,
+            @ToolParam(description = "Method name to locate web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText, ref etc.") LocatorStrategy findBy,
             @ToolParam(description = "Locator value of web element") String value,
-            @ToolParam(description = "Timeout value in seconds to wait for web element", required = false) Long timeout
+            @ToolParam(description = "Timeout value in seconds to wait for web element", required = false) Long timeout,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
     ) {
-        try {
-            timeout = setTimeout(timeout);
-            WebElement element = findElement(findBy, value, timeout);
-            WebDriverWait wait = new WebDriverWait(getDriver(), Duration.ofSeconds(timeout));
-            wait.until(ExpectedConditions.elementToBeClickable(element));
-            element.click();
-            return "Element clicked successfully.";
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            return browserActions.click(handle.session(), findBy, value, timeout);
         } catch (Exception e) {
             String msg = String.format("Error in clicking Web Element [%s, %s]: %s", findBy, value, e.getMessage());
             logger.info(msg);
+            browserMetrics.recordError(e);
             return msg;
         }
     }
 
     @Tool(name = "browser_send_keys", description = "Send or Type keys to a web element")
     public String browserSendKeys(
-            @ToolParam(description = "Method name to locate web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText etc.") LocatorStrategy findBy,
+            @ToolParam(description = "Method name to locate web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText, ref etc.") LocatorStrategy findBy,
             @ToolParam(description = "Locator value of web element") String locatorValue,
             @ToolParam(description = "Text to type to a web element") String text,
-            @ToolParam(description = "Timeout value in seconds to wait for web element", required = false) Long timeout
+            @ToolParam(description = "Timeout value in seconds to wait for web element", required = false) Long timeout,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
     ) {
-        try {
-            timeout = setTimeout(timeout);
-            WebElement element = findElement(findBy, locatorValue, timeout);
-            element.clear();
-            element.sendKeys(text);
-            return "Entered text into web element: " + text;
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            return browserActions.sendKeys(handle.session(), findBy, locatorValue, text, timeout);
         } catch (Exception e) {
             String msg = String.format("Error in entering text to Web Element [%s, %s]: %s", findBy, locatorValue, e.getMessage());
             logger.info(msg);
+            browserMetrics.recordError(e);
             return msg;
         }
     }
 
-    @Tool(name = "browser_take_screenshot", description = "Take screenshot of a browser tab")
+    @Tool(name = "browser_take_screenshot", description = "Take screenshot of a browser tab and save it to a file")
     public String takeScreenshot(
-            @ToolParam(description = "Output file path for the screenshot [optional]", required = false) String outputPath
+            @ToolParam(description = "Output file path for the screenshot [optional]", required = false) String outputPath,
+            @ToolParam(description = "Image format e.g png, jpeg. Defaults to png", required = false) String format,
+            @ToolParam(description = "JPEG quality between 0.0 and 1.0, default 0.8", required = false) Float quality,
+            @ToolParam(description = "Downscale the image to this maximum width in pixels", required = false) Integer maxWidth,
+            @ToolParam(description = "Clip rectangle as x,y,width,height in screenshot pixels", required = false) String clip,
+            @ToolParam(description = "Method name to locate a web element to capture instead of the whole tab e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText, ref etc.", required = false) LocatorStrategy findBy,
+            @ToolParam(description = "Locator value of web element", required = false) String locatorValue,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
     ) {
         try {
-            TakesScreenshot driver = (TakesScreenshot) getDriver();
-            File screenshot = driver.getScreenshotAs(OutputType.FILE);
-            if (outputPath == null || outputPath.trim().isEmpty()) {
-                outputPath = Paths.get(
-                        System.getProperty("user.home"),
-                        ".mcp",
-                        "screenshots",
-                        System.currentTimeMillis() + ".png"
-                ).toString();
-            }
-            File destination = new File(outputPath);
-            File parentDir = destination.getParentFile();
-            if (!parentDir.exists()) {
-                parentDir.mkdirs();
+            byte[] screenshot;
+            try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+                screenshot = browserActions.screenshot(handle.session(), findBy, locatorValue);
             }
-            FileCopyUtils.copy(screenshot, destination);
-            return "Screenshot captured successfully and saved to : " + outputPath;
+            Path destination = screenshotWriter.save(screenshot, outputPath, format, quality, maxWidth, ImageEncoder.parseClip(clip));
+            return "Screenshot captured successfully and saved to : " + destination;
         } catch (Exception e) {
             String msg = String.format("Error in capturing screenshot: %s", e.getMessage());
             logger.info(msg);
+            browserMetrics.recordError(e);
             return msg;
         }
     }
 
+    @Tool(name = "browser_screenshot_image", description = "Take screenshot of a browser tab and return it inline as a JPEG image",
+            resultConverter = RawResultConverter.class)
+    public String screenshotImage(
+            @ToolParam(description = "JPEG quality between 0.0 and 1.0, default 0.8", required = false) Float quality,
+            @ToolParam(description = "Downscale the image to this maximum width in pixels", required = false) Integer maxWidth,
+            @ToolParam(description = "Clip rectangle as x,y,width,height in screenshot pixels", required = false) String clip,
+            @ToolParam(description = "Method name to locate a web element to capture instead of the whole tab e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText, ref etc.", required = false) LocatorStrategy findBy,
+            @ToolParam(description = "Locator value of web element", required = false) String locatorValue,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
+    ) {
+        // errors are thrown rather than returned, a message cannot be rendered as image content
+        byte[] screenshot;
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            screenshot = browserActions.screenshot(handle.session(), findBy, locatorValue);
+        }
+        byte[] image = ImageEncoder.encode(screenshot, "jpeg", quality, maxWidth, ImageEncoder.parseClip(clip));
+        return Base64.getEncoder().encodeToString(image);
+    }
+
     @Tool(name = "browser_get_text", description = "Get text of a web element")
     public String getText(
-            @ToolParam(description = "Method name to locate web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText etc.") LocatorStrategy findBy,
+            @ToolParam(description = "Method name to locate web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText, ref etc.") LocatorStrategy findBy,
             @ToolParam(description = "Locator value of web element") String locatorValue,
-            @ToolParam(description = "Timeout value in seconds to wait for web element", required = false) Long timeout
+            @ToolParam(description = "Timeout value in seconds to wait for web element", required = false) Long timeout,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
     ) {
-        try {
-            timeout = setTimeout(timeout);
-            WebElement element = findElement(findBy, locatorValue, timeout);
-            return element.getText();
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            return browserActions.getText(handle.session(), findBy, locatorValue, timeout);
         } catch (Exception e) {
             String msg = String.format("Error in getting text of Web Element [%s, %s]: %s", findBy, locatorValue, e.getMessage());
             logger.info(msg);
+            browserMetrics.recordError(e);
             return msg;
         }
     }
 
     @Tool(name = "browser_hover", description = "Move the mouse to hover on a web element")
     public String hoverOnElement(
-            @ToolParam(description = "Method name to locate web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText etc.") LocatorStrategy findBy,
+            @ToolParam(description = "Method name to locate web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText, ref etc.") LocatorStrategy findBy,
             @ToolParam(description = "Locator value of web element") String locatorValue,
-            @ToolParam(description = "Timeout value in seconds to wait for web element", required = false) Long timeout
+            @ToolParam(description = "Timeout value in seconds to wait for web element", required = false) Long timeout,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
     ) {
-        try {
-            timeout = setTimeout(timeout);
-            WebElement element = findElement(findBy, locatorValue, timeout);
-            Actions actions = new Actions(getDriver());
-            actions.moveToElement(element).perform();
-            return "Moved mouse on the web element";
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            return browserActions.hover(handle.session(), findBy, locatorValue, timeout);
         } catch (Exception e) {
             String msg = String.format("Error in hovering on a Web Element [%s, %s]: %s", findBy, locatorValue, e.getMessage());
             logger.info(msg);
+            browserMetrics.recordError(e);
             return msg;
         }
     }
 
     @Tool(name = "browser_drag_and_drop", description = "Drag an element and drop it to another web element")
     public String dragAndDrop(
-            @ToolParam(description = "Method name to locate source web element to drag e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText etc.") LocatorStrategy sourceFindBy,
+            @ToolParam(description = "Method name to locate source web element to drag e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText, ref etc.") LocatorStrategy sourceFindBy,
             @ToolParam(description = "Locator value of web element") String sourceLocatorValue,
-            @ToolParam(description = "Method name to locate target web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText etc.") LocatorStrategy targetFindBy,
+            @ToolParam(description = "Method name to locate target web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText, ref etc.") LocatorStrategy targetFindBy,
             @ToolParam(description = "Locator value of web element") String targetLocatorValue,
-            @ToolParam(description = "Timeout value in seconds to wait for web element", required = false) Long timeout
+            @ToolParam(description = "Timeout value in seconds to wait for web element", required = false) Long timeout,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
     ) {
-        try {
-            timeout = setTimeout(timeout);
-            WebElement source = findElement(sourceFindBy, sourceLocatorValue, timeout);
-            WebElement target = findElement(targetFindBy, targetLocatorValue, timeout);
-            Actions actions = new Actions(getDriver());
-            actions.dragAndDrop(source, target).perform();
-            return "Source element dragged to target element successfully";
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            return browserActions.dragAndDrop(handle.session(), sourceFindBy, sourceLocatorValue, targetFindBy, targetLocatorValue, timeout);
         } catch (Exception e) {
             String msg = "Error in performing drag and drop: " + e.getMessage();
             logger.info(msg);
+            browserMetrics.recordError(e);
             return msg;
         }
     }
 
     @Tool(name = "browser_double_click", description = "Perform double click on a web element")
     public String doubleClick(
-            @ToolParam(description = "Method name to locate web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText etc.") LocatorStrategy findBy,
+            @ToolParam(description = "Method name to locate web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText, ref etc.") LocatorStrategy findBy,
             @ToolParam(description = "Locator value of web element") String locatorValue,
-            @ToolParam(description = "Timeout value in seconds to wait for web element", required = false) Long timeout
+            @ToolParam(description = "Timeout value in seconds to wait for web element", required = false) Long timeout,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
     ) {
-        try {
-            timeout = setTimeout(timeout);
-            WebElement element = findElement(findBy, locatorValue, timeout);
-            Actions actions = new Actions(getDriver());
-            actions.doubleClick(element).perform();
-            return "Double click performed successfully on the web element";
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            return browserActions.doubleClick(handle.session(), findBy, locatorValue, timeout);
         } catch (Exception e) {
             String msg = String.format("Error in performing double click on the Web Element [%s, %s]: %s", findBy, locatorValue, e.getMessage());
             logger.info(msg);
+            browserMetrics.recordError(e);
             return msg;
         }
     }
 
     @Tool(name = "browser_right_click", description = "Perform right/context click on a web element")
     public String rightClick(
-            @ToolParam(description = "Method name to locate web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText etc.") LocatorStrategy findBy,
+            @ToolParam(description = "Method name to locate web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText, ref etc.") LocatorStrategy findBy,
             @ToolParam(description = "Locator value of web element") String locatorValue,
-            @ToolParam(description = "Timeout value in seconds to wait for web element", required = false) Long timeout
+            @ToolParam(description = "Timeout value in seconds to wait for web element", required = false) Long timeout,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
     ) {
-        try {
-            timeout = setTimeout(timeout);
-            WebElement element = findElement(findBy, locatorValue, timeout);
-            Actions actions = new Actions(getDriver());
-            actions.contextClick(element).perform();
-            return "Right click performed successfully on the web element";
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            return browserActions.rightClick(handle.session(), findBy, locatorValue, timeout);
         } catch (Exception e) {
             String msg = String.format("Error in performing right click on the Web Element [%s, %s]: %s", findBy, locatorValue, e.getMessage());
             logger.info(msg);
+            browserMetrics.recordError(e);
             return msg;
         }
     }
 
     @Tool(name = "browser_press_key", description = "Press a keyboard key to a web element")
     public String pressKey(
-            @ToolParam(description = "Method name to locate web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText etc.") LocatorStrategy findBy,
+            @ToolParam(description = "Method name to locate web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText, ref etc.") LocatorStrategy findBy,
             @ToolParam(description = "Locator value of web element") String locatorValue,
             @ToolParam(description = "Keyboard key value e.g ENTER, CANCEL, CONTROL, ALT, etc. ") Keys key,
-            @ToolParam(description = "Timeout value in seconds to wait for web element", required = false) Long timeout
+            @ToolParam(description = "Timeout value in seconds to wait for web element", required = false) Long timeout,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
     ) {
-        try {
-            timeout = setTimeout(timeout);
-            WebElement element = findElement(findBy, locatorValue, timeout);
-            element.sendKeys(key);
-            return String.format("Keyboard key '%s' pressed successfully to the web element", key);
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            return browserActions.pressKey(handle.session(), findBy, locatorValue, key, timeout);
         } catch (Exception e) {
             String msg = String.format("Error in pressing key to the Web Element [%s, %s]: %s", findBy, locatorValue, e.getMessage());
             logger.info(msg);
+            browserMetrics.recordError(e);
             return msg;
         }
     }
 
     @Tool(name = "browser_upload_file", description = "Upload a file to a file input web element")
     public String uploadFile(
-            @ToolParam(description = "Method name to locate web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText etc.") LocatorStrategy findBy,
+            @ToolParam(description = "Method name to locate web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText, ref etc.") LocatorStrategy findBy,
             @ToolParam(description = "Locator value of web element") String locatorValue,
             @ToolParam(description = "Path of the file to upload") String filePath,
-            @ToolParam(description = "Timeout value in seconds to wait for web element", required = false) Long timeout
+            @ToolParam(description = "Timeout value in seconds to wait for web element", required = false) Long timeout,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
     ) {
-        try {
-            timeout = setTimeout(timeout);
-            WebElement element = findElement(findBy, locatorValue, timeout);
-            element.sendKeys(filePath);
-            return "File has been uploaded to the input web element";
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            return browserActions.uploadFile(handle.session(), findBy, locatorValue, filePath, timeout);
         } catch (Exception e) {
             String msg = String.format("Error in uploading file to the Web Element [%s, %s]: %s", findBy, locatorValue, e.getMessage());
             logger.info(msg);
+            browserMetrics.recordError(e);
             return msg;
         }
     }
 
 
-    @Tool(name = "browser_page_source", description = "Fetch the web page source code from current browser tab")
-    public String pageSource() {
-        try {
-            return getDriver().getPageSource();
+    @Tool(name = "browser_page_source", description = "Fetch the web page source code from current browser tab. "
+            + "Pass any of selector, stripBoilerplate, offset, maxLength or hash to get a paginated chunk with a content hash instead of the whole page")
+    public String pageSource(
+            @ToolParam(description = "CSS selector of the subtree to return instead of the whole document", required = false) String selector,
+            @ToolParam(description = "Remove scripts, styles, svg and comments from the returned source", required = false) Boolean stripBoilerplate,
+            @ToolParam(description = "Character offset to start from, use next_offset of the previous chunk", required = false) Integer offset,
+            @ToolParam(description = "Maximum number of characters to return", required = false) Integer maxLength,
+            @ToolParam(description = "Hash of a previously fetched source, returns not modified if the page is unchanged", required = false) String hash,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
+    ) {
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            if (selector == null && stripBoilerplate == null && offset == null && maxLength == null && hash == null)
+                return handle.driver().getPageSource();
+            return browserActions.pageSource(handle.session(), selector, Boolean.TRUE.equals(stripBoilerplate), offset, maxLength, hash);
         } catch (Exception e) {
             String msg = String.format("Error in fetching page source code: %s", e.getMessage());
             logger.info(msg);
+            browserMetrics.recordError(e);
+            return msg;
+        }
+    }
+
+    @Tool(name = "browser_snapshot", description = "Capture the visible interactive elements of the current page with role, name and bounds. "
+            + "Each element gets a ref that can be used as locator value with the ref locator strategy")
+    public String snapshot(
+            @ToolParam(description = "CSS selector of the subtree to capture instead of the whole page", required = false) String selector,
+            @ToolParam(description = "Maximum number of elements to return, default 500", required = false) Integer maxNodes,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
+    ) {
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            return browserActions.snapshot(handle.session(), selector, maxNodes);
+        } catch (Exception e) {
+            String msg = String.format("Error in capturing page snapshot: %s", e.getMessage());
+            logger.info(msg);
+            browserMetrics.recordError(e);
             return msg;
         }
     }
@@ -327,136 +392,53 @@ public class BrowserService {
     @Tool(name = "browser_execute_javascript", description = "Execute the javascript command in browser context")
     public String executeScript(
             @ToolParam(description = "Javascript command to execute") String script,
-            @ToolParam(description = "Method name to locate web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText etc.", required = false) LocatorStrategy findBy,
-            @ToolParam(description = "Locator value of web element", required = false) String locatorValue
+            @ToolParam(description = "Method name to locate web element e.g cssSelector, xpath, id, className, name, tag, linkText, partialLinkText, ref etc.", required = false) LocatorStrategy findBy,
+            @ToolParam(description = "Locator value of web element", required = false) String locatorValue,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
     ) {
-        try {
-
-            JavascriptExecutor executor = (JavascriptExecutor) getDriver();
-            if (script.contains("arguments[")) {
-                if (findBy == null || locatorValue == null || locatorValue.isEmpty()) {
-                    return "locator strategy and locator value must be provided for parameterised javascript execution";
-                }
-                WebElement element = findElement(findBy, locatorValue, 5);
-                executor.executeScript(script, element);
-            } else {
-                executor.executeScript(script);
-            }
-            return "Javascript executed successfully";
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            return browserActions.executeScript(handle.session(), script, findBy, locatorValue);
         } catch (Exception e) {
             String msg = String.format("Error in executing javascript %s", e.getMessage());
             logger.info(msg);
+            browserMetrics.recordError(e);
             return msg;
         }
     }
 
-    @Tool(name = "browser_tabs", description = "Manage browser tabs")
-    public String executeScript(
-            @ToolParam(description = "Tab action to perform e.g CLOSE, SELECT, NEW") TabAction action,
-            @ToolParam(description = "Index of the tab, used for close/select. If not provided for close, current tab will be closed", required = false) Integer index
+    @Tool(name = "browser_tabs", description = "Manage browser tabs: open, select and close them by index or id, list them, "
+            + "close all but the current tab or open many urls in parallel tabs")
+    public String browserTabs(
+            @ToolParam(description = "Tab action to perform e.g NEW, SELECT, CLOSE, LIST, CLOSE_OTHERS, OPEN_URLS") TabAction action,
+            @ToolParam(description = "Index of the tab in the order the tabs were opened, used for close/select. If no tab is given for close, current tab will be closed", required = false) Integer index,
+            @ToolParam(description = "Id of the tab as returned by NEW, OPEN_URLS or LIST, used for close/select instead of the index", required = false) String tabId,
+            @ToolParam(description = "Urls to open in a tab each for OPEN_URLS, the pages load in parallel and control stays on the current tab", required = false) List<String> urls,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
     ) {
-        try {
-
-            switch (action) {
-                case NEW -> {
-                    getDriver().switchTo().newWindow(WindowType.TAB);
-                    return "Control switched to the new window";
-                }
-                case CLOSE -> {
-                    if (index == null)
-                        getDriver().close();
-                    else {
-                        Set<String> tabs = getDriver().getWindowHandles();
-                        String currentTab = getDriver().getWindowHandle();
-                        if (index >= tabs.size())
-                            throw new IllegalArgumentException("Tab index should be less than total tabs opened");
-                        int counter = 0;
-                        for (String tab : tabs) {
-                            if (counter == index) {
-                                String tabToClose = tab;
-                                if (!tabToClose.equals(currentTab)) {
-                                    getDriver().switchTo().window(tabToClose);
-                                    getDriver().close();
-                                    getDriver().switchTo().window(currentTab);
-                                } else {
-                                    getDriver().close();
-                                    Set<String> newTabs = getDriver().getWindowHandles();
-                                    for (String t : newTabs) {
-                                        getDriver().switchTo().window(t);
-                                        break;
-                                    }
-                                }
-                                break;
-                            }
-                            counter++;
-                        }
-                    }
-                }
-                case SELECT -> {
-                    if (index == null)
-                        throw new IllegalArgumentException("Tab index required to select a tab");
-                    Set<String> tabs = getDriver().getWindowHandles();
-                    if (index >= tabs.size())
-                        throw new IllegalArgumentException("Tab index should be less than total tabs opened");
-                    int counter = 0;
-                    for (String tab : tabs) {
-                        if (counter == index) {
-                            getDriver().switchTo().window(tab);
-                            return "Tab selected successfully.";
-                        }
-                        counter++;
-                    }
-                }
-            }
-            return "Tab action performed successfully.";
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            BrowserSession session = handle.session();
+            return switch (action) {
+                case NEW -> tabManager.open(session);
+                case SELECT -> tabManager.select(session, index, tabId);
+                case CLOSE -> tabManager.close(session, index, tabId);
+                case LIST -> tabManager.list(session);
+                case CLOSE_OTHERS -> tabManager.closeOthers(session);
+                case OPEN_URLS -> tabManager.openAll(session, urls);
+            };
         } catch (Exception e) {
             String msg = String.format("Error in performing tab action %s", e.getMessage());
             logger.info(msg);
+            browserMetrics.recordError(e);
             return msg;
         }
     }
 
-    private WebDriver getDriver() {
-        if (currentSession == null || !browserSessions.containsKey(currentSession)) {
-            throw new IllegalStateException("No active browser sessions exist");
-        }
-        return browserSessions.get(currentSession);
-    }
-
-    private By getLocator(LocatorStrategy by, String value) {
-        switch (by) {
-            case id: return By.id(value);
-            case className: return By.className(value);
-            case cssSelector: return By.cssSelector(value);
-            case name: return By.name(value);
-            case tag: return By.tagName(value);
-            case linkText: return By.linkText(value);
-            case partialLinkText: return By.partialLinkText(value);
-            case xpath: return By.xpath(value);
-            default: throw new IllegalArgumentException("No such locator strategy exist for locating web element: " + by);
-        }
-    }
-
-    private WebElement findElement(LocatorStrategy by, String value, long timeoutInSeconds) {
-        By locator = getLocator(by, value);
-        WebDriverWait wait = new WebDriverWait(getDriver(), Duration.ofSeconds(timeoutInSeconds));
-        wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
-        return getDriver().findElement(locator);
-    }
-
-    private Long setTimeout(Long timeout) {
-        return timeout == null || timeout <= 0 ? 20L : timeout;
-    }
-
     @PreDestroy
     public void onShutdown() {
         logger.info("🔴 shutting down browser service...");
-        browserSessions.keySet().forEach(session -> {
-            try {
-                browserSessions.get(session).quit();
-            } catch (Exception e) {
-                logger.info(e.getMessage());
-            }
-        });
+        List<WebDriver> drivers = sessionManager.getSessions().stream().map(BrowserSession::getDriver).toList();
+        driverPool.discardAll(drivers, Duration.ofSeconds(30));
     }
 }
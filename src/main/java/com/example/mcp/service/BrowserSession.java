@@ -0,0 +1,280 @@
+package com.example.mcp.service;
+
+import com.example.mcp.data.Browser;
+import com.example.mcp.data.LocatorStrategy;
+import com.example.mcp.data.RecordedStep;
+import com.example.mcp.data.Recording;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A browser opened by browser_open. Commands on the same driver are serialized through {@link #acquire()},
+ * commands on different sessions run in parallel.
+ */
+public class BrowserSession {
+
+    private static final int ELEMENT_CACHE_SIZE = 256;
+
+    private final String id;
+    private final Browser browser;
+    private final WebDriver driver;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long createdNanos = System.nanoTime();
+    // start or end of the last tool call, drives idle reaping and least recently used eviction
+    private volatile long lastUsedNanos = createdNanos;
+    // set while holding the lock when the session is closed, callers that were waiting for the lock give up
+    private volatile boolean closed;
+    // pid of the browser process, 0 while not looked up yet and -1 if it cannot be found. Only used by the reaper
+    private long browserPid;
+    // BiDi request interception of the network filter, only accessed while holding the lock
+    private NetworkFilter.Interception networkInterception;
+    // BiDi event listeners of browser_subscribe and browser_wait_for, only accessed while holding the lock
+    private PageEvents.Tracker eventTracker;
+    // steps of the running browser_record, its name and the values stored as placeholders, only accessed while holding the lock
+    private String recordingName;
+    private List<RecordedStep> recordedSteps;
+    private Map<String, String> recordingVariables = Map.of();
+    // open tabs with their ids for browser_tabs, only accessed while holding the lock
+    private final TabRegistry tabs = new TabRegistry();
+    // refs handed out by the last browser_snapshot, only accessed while holding the lock
+    private final Map<String, WebElement> elementRefs = new HashMap<>();
+    // time spent locating elements during the running action, split out of the action time in the metrics
+    private long waitNanos;
+    // elements located on the current page by (strategy, value), least recently used entries are dropped
+    private final Map<LocatorKey, WebElement> elementCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<LocatorKey, WebElement> eldest) {
+            return size() > ELEMENT_CACHE_SIZE;
+        }
+    };
+
+    BrowserSession(String id, Browser browser, WebDriver driver) {
+        this.id = id;
+        this.browser = browser;
+        this.driver = driver;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Browser getBrowser() {
+        return browser;
+    }
+
+    WebDriver getDriver() {
+        return driver;
+    }
+
+    long getLastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    long idleNanos(long now) {
+        return now - lastUsedNanos;
+    }
+
+    long ageNanos(long now) {
+        return now - createdNanos;
+    }
+
+    long getBrowserPid() {
+        return browserPid;
+    }
+
+    void setBrowserPid(long browserPid) {
+        this.browserPid = browserPid;
+    }
+
+    NetworkFilter.Interception getNetworkInterception() {
+        return networkInterception;
+    }
+
+    void setNetworkInterception(NetworkFilter.Interception networkInterception) {
+        this.networkInterception = networkInterception;
+    }
+
+    PageEvents.Tracker getEventTracker() {
+        return eventTracker;
+    }
+
+    void setEventTracker(PageEvents.Tracker eventTracker) {
+        this.eventTracker = eventTracker;
+    }
+
+    TabRegistry getTabs() {
+        return tabs;
+    }
+
+    void startRecording(String name, Map<String, String> variables) {
+        recordingName = name;
+        recordedSteps = new ArrayList<>();
+        recordingVariables = variables == null ? Map.of() : variables;
+    }
+
+    boolean isRecording() {
+        return recordedSteps != null;
+    }
+
+    void record(RecordedStep step) {
+        recordedSteps.add(step);
+    }
+
+    /**
+     * Replaces the values of the recording variables in the input with their ${name} placeholders, longest value
+     * first, so that e.g passwords typed while recording are not written to the recording.
+     */
+    String maskRecorded(String input) {
+        if (input == null)
+            return null;
+        List<Map.Entry<String, String>> variables = recordingVariables.entrySet().stream()
+                .filter(variable -> variable.getValue() != null && !variable.getValue().isEmpty())
+                .sorted(Comparator.comparingInt((Map.Entry<String, String> variable) -> variable.getValue().length()).reversed())
+                .toList();
+        for (Map.Entry<String, String> variable : variables)
+            input = input.replace(variable.getValue(), "${" + variable.getKey() + "}");
+        return input;
+    }
+
+    /**
+     * Ends the running recording and returns it, or null if none was running.
+     */
+    Recording stopRecording() {
+        if (recordedSteps == null)
+            return null;
+        Recording recording = new Recording(Recording.VERSION, recordingName, System.currentTimeMillis(), List.copyOf(recordedSteps));
+        recordingName = null;
+        recordedSteps = null;
+        recordingVariables = Map.of();
+        return recording;
+    }
+
+    void replaceElementRefs(Map<String, WebElement> refs) {
+        elementRefs.clear();
+        elementRefs.putAll(refs);
+    }
+
+    WebElement getElementRef(String ref) {
+        return elementRefs.get(ref);
+    }
+
+    WebElement getCachedElement(LocatorStrategy by, String value) {
+        return elementCache.get(new LocatorKey(by, value));
+    }
+
+    void cacheElement(LocatorStrategy by, String value, WebElement element) {
+        elementCache.put(new LocatorKey(by, value), element);
+    }
+
+    void clearElementCache() {
+        elementCache.clear();
+    }
+
+    void resetWaitNanos() {
+        waitNanos = 0;
+    }
+
+    void addWaitNanos(long nanos) {
+        waitNanos += nanos;
+    }
+
+    long getWaitNanos() {
+        return waitNanos;
+    }
+
+    /**
+     * Forgets everything bound to the current document, called on navigation and tab switches.
+     */
+    void resetPageState() {
+        elementCache.clear();
+        elementRefs.clear();
+    }
+
+    /**
+     * Locks the session until the returned handle is closed.
+     */
+    public Handle acquire() {
+        lock.lock();
+        return touch();
+    }
+
+    /**
+     * Marks the session as closed, its driver is about to be quit or handed back to the pool. Called while
+     * holding the lock.
+     */
+    void markClosed() {
+        closed = true;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    boolean isBusy() {
+        return lock.isLocked();
+    }
+
+    /**
+     * Locks the session if no call is running on it, otherwise returns null.
+     */
+    Handle tryAcquire() {
+        if (!lock.tryLock())
+            return null;
+        checkOpen();
+        return new Handle(this);
+    }
+
+    /**
+     * Locks the session until the returned handle is closed, giving up when the call before does not finish in time.
+     */
+    public Handle acquire(Duration timeout) {
+        try {
+            if (!lock.tryLock(timeout.toMillis(), TimeUnit.MILLISECONDS))
+                throw new IllegalStateException("Browser session " + id + " is busy with another call, retry later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for browser session " + id, e);
+        }
+        return touch();
+    }
+
+    // the session may have been closed while the caller waited for the lock, its driver then belongs to the pool
+    private void checkOpen() {
+        if (closed) {
+            lock.unlock();
+            throw new IllegalStateException("Browser session " + id + " is closed");
+        }
+    }
+
+    private Handle touch() {
+        checkOpen();
+        lastUsedNanos = System.nanoTime();
+        return new Handle(this);
+    }
+
+    private record LocatorKey(LocatorStrategy by, String value) {
+    }
+
+    public record Handle(BrowserSession session) implements AutoCloseable {
+
+        public WebDriver driver() {
+            return session.driver;
+        }
+
+        @Override
+        public void close() {
+            session.lastUsedNanos = System.nanoTime();
+            session.lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.mcp.service;
+
+import com.example.mcp.config.CrawlProperties;
+import com.example.mcp.data.Browser;
+import com.example.mcp.data.BrowserOptions;
+import com.example.mcp.data.CrawlPageResult;
+import com.example.mcp.data.CrawlResult;
+import com.example.mcp.data.ExtractField;
+import com.example.mcp.data.ExtractResult;
+import com.example.mcp.data.LocatorStrategy;
+import io.modelcontextprotocol.spec.McpSchema;
+import jakarta.annotation.PreDestroy;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.mcp.McpToolUtils;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.ai.util.json.JsonParser;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs the same extraction on many urls, spread over several headless browsers that each work through the
+ * shared list of urls. Every finished page is pushed to the client as a log notification right away and the
+ * tool returns all pages in the order of the urls.
+ */
+@Service
+public class CrawlService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CrawlService.class);
+
+    // W3C defaults, restored before the drivers go back to the pool
+    private static final Duration DEFAULT_PAGE_LOAD_TIMEOUT = Duration.ofSeconds(300);
+    private static final Duration DEFAULT_SCRIPT_TIMEOUT = Duration.ofSeconds(30);
+
+    private final SessionManager sessionManager;
+    private final WebDriverPool driverPool;
+    private final BrowserActions browserActions;
+    private final NetworkFilter networkFilter;
+    private final CrawlProperties properties;
+    private final BrowserMetrics browserMetrics;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "crawl-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CrawlService(SessionManager sessionManager, WebDriverPool driverPool, BrowserActions browserActions,
+                        NetworkFilter networkFilter, CrawlProperties properties, BrowserMetrics browserMetrics) {
+        this.sessionManager = sessionManager;
+        this.driverPool = driverPool;
+        this.browserActions = browserActions;
+        this.networkFilter = networkFilter;
+        this.properties = properties;
+        this.browserMetrics = browserMetrics;
+    }
+
+    @Tool(name = "browser_crawl", description = "Open many urls in parallel headless browsers and extract the same rows from every page, like browser_extract. "
+            + "Finished pages are also sent as log notifications while the crawl is running. Pages without any matching row carry a warning")
+    public CrawlResult crawl(
+            @ToolParam(description = "Urls of the pages to crawl") List<String> urls,
+            @ToolParam(description = "Locator value matching the row elements on every page e.g table#results tbody tr") String rowLocator,
+            @ToolParam(description = "Fields of a row by name, same format as in browser_extract e.g {\"title\": {\"selector\": \"a.title\"}, \"link\": {\"selector\": \"a.title\", \"attribute\": \"href\"}}") Map<String, ExtractField> fields,
+            @ToolParam(description = "Method name to locate the row elements e.g cssSelector, xpath, className, tag etc. Defaults to cssSelector", required = false) LocatorStrategy findBy,
+            @ToolParam(description = "Maximum number of rows to return per page, default 100", required = false) Integer limit,
+            @ToolParam(description = "Number of browsers to crawl with, default and maximum are set by the server", required = false) Integer concurrency,
+            @ToolParam(description = "Timeout value in seconds for a page to load and to show its first row", required = false) Long timeout,
+            @ToolParam(description = "Name of the browser e.g chrome, firefox. Defaults to chrome", required = false) Browser browserName,
+            @ToolParam(description = "Browser options e.g pageLoadStrategy, blockedResourceTypes, profile. Browsers always run headless and on copies of the profile", required = false) BrowserOptions options,
+            ToolContext toolContext
+    ) {
+        long start = System.nanoTime();
+        try {
+            if (urls == null || urls.isEmpty())
+                throw new IllegalArgumentException("At least one url to crawl is required");
+            LocatorStrategy strategy = findBy == null ? LocatorStrategy.cssSelector : findBy;
+            Browser browser = browserName == null ? Browser.chrome : browserName;
+            BrowserOptions headless = options == null
+                    ? new BrowserOptions(true, List.of())
+                    // the browsers run side by side, so each starts from its own copy of a profile
+                    : new BrowserOptions(true, options.arguments(), options.pageLoadStrategy(), options.blockedUrls(),
+                    options.blockedResourceTypes(), options.profile(), options.profile() != null ? true : null);
+            Duration pageTimeout = timeout == null || timeout <= 0 ? properties.pageTimeout() : Duration.ofSeconds(timeout);
+            int workers = Math.min(urls.size(), concurrency == null || concurrency <= 0
+                    ? properties.maxConcurrency()
+                    : Math.min(concurrency, properties.maxConcurrency()));
+
+            Queue<CrawlPageResult> pages = new ConcurrentLinkedQueue<>();
+            Queue<Exception> startErrors = new ConcurrentLinkedQueue<>();
+            Consumer<CrawlPageResult> sink = page -> {
+                pages.add(page);
+                notifyClient(toolContext, page);
+            };
+            long deadlineNanos = start + properties.maxDuration().toNanos();
+            AtomicInteger next = new AtomicInteger();
+            CompletableFuture<?>[] running = new CompletableFuture[workers];
+            for (int i = 0; i < workers; i++)
+                running[i] = CompletableFuture.runAsync(() -> {
+                    BrowserSession session;
+                    try {
+                        session = sessionManager.openBackground(browser, () -> driverPool.lease(browser, headless));
+                    } catch (Exception e) {
+                        logger.info("Error in starting crawl browser: {}", e.getMessage());
+                        startErrors.add(e);
+                        return;
+                    }
+                    work(session, headless, urls, next, strategy, rowLocator, fields, limit, pageTimeout, deadlineNanos, sink);
+                }, executor);
+            CompletableFuture.allOf(running).join();
+
+            // urls left over when no browser could be started
+            int index;
+            while ((index = next.getAndIncrement()) < urls.size()) {
+                Exception cause = startErrors.peek();
+                sink.accept(new CrawlPageResult(index, urls.get(index), false, 0, List.of(),
+                        "Not crawled, no browser could be started: " + (cause == null ? "unknown error" : cause.getMessage()), null, 0));
+            }
+
+            List<CrawlPageResult> ordered = new ArrayList<>(pages);
+            ordered.sort(Comparator.comparingInt(CrawlPageResult::index));
+            int succeeded = (int) ordered.stream().filter(CrawlPageResult::success).count();
+            int empty = (int) ordered.stream().filter(page -> page.warning() != null).count();
+            return new CrawlResult(succeeded, ordered.size() - succeeded, empty, ordered, null, elapsedMillis(start));
+        } catch (Exception e) {
+            String msg = "Error in crawling urls: " + e.getMessage();
+            logger.info(msg);
+            browserMetrics.recordError(e);
+            return new CrawlResult(0, urls == null ? 0 : urls.size(), 0, List.of(), msg, elapsedMillis(start));
+        }
+    }
+
+    private void work(BrowserSession session, BrowserOptions options, List<String> urls, AtomicInteger next,
+                      LocatorStrategy findBy, String rowLocator, Map<String, ExtractField> fields, Integer limit,
+                      Duration pageTimeout, long deadlineNanos, Consumer<CrawlPageResult> sink) {
+        // the session is closed before the lock is given up, so no call addressing it by id gets the pooled driver
+        try (BrowserSession.Handle handle = session.acquire()) {
+            try {
+                WebDriver driver = handle.driver();
+                driver.manage().timeouts().pageLoadTimeout(pageTimeout).scriptTimeout(pageTimeout);
+                networkFilter.apply(session, options.blockedUrls(), options.blockedResourceTypes());
+                int index;
+                while ((index = next.getAndIncrement()) < urls.size()) {
+                    long remaining = deadlineNanos - System.nanoTime();
+                    if (remaining <= 0) {
+                        sink.accept(new CrawlPageResult(index, urls.get(index), false, 0, List.of(), String.format(
+                                "Not crawled, the crawl deadline of %s passed", properties.maxDuration()), null, 0));
+                        continue;
+                    }
+                    // close to the deadline a page only gets the time left
+                    Duration budget = pageTimeout;
+                    if (remaining < pageTimeout.toNanos()) {
+                        budget = Duration.ofNanos(remaining);
+                        driver.manage().timeouts().pageLoadTimeout(budget);
+                    }
+                    sink.accept(crawlPage(session, index, urls.get(index), findBy, rowLocator, fields, limit, budget));
+                }
+            } catch (Exception e) {
+                logger.info("Error in crawl browser {}: {}", session.getId(), e.getMessage());
+            } finally {
+                networkFilter.clear(session);
+                sessionManager.remove(session);
+                try {
+                    session.getDriver().manage().timeouts().pageLoadTimeout(DEFAULT_PAGE_LOAD_TIMEOUT).scriptTimeout(DEFAULT_SCRIPT_TIMEOUT);
+                } catch (Exception e) {
+                    // the pool drops drivers that fail to reset
+                }
+                driverPool.release(session.getDriver());
+            }
+        }
+    }
+
+    private CrawlPageResult crawlPage(BrowserSession session, int index, String url, LocatorStrategy findBy, String rowLocator,
+                                      Map<String, ExtractField> fields, Integer limit, Duration pageTimeout) {
+        long start = System.nanoTime();
+        try {
+            browserActions.navigate(session, url);
+            // loading and waiting for the first row share the page timeout
+            Duration left = pageTimeout.minusNanos(System.nanoTime() - start);
+            ExtractResult result = browserActions.extract(session, findBy, rowLocator, fields, 0, limit,
+                    left.isNegative() ? Duration.ZERO : left);
+            String warning = result.total() == 0
+                    ? "No rows matched " + rowLocator + ", the page may not have rendered in time or the locator no longer matches"
+                    : null;
+            return new CrawlPageResult(index, url, true, result.total(), result.rows(), null, warning, elapsedMillis(start));
+        } catch (Exception e) {
+            String msg = String.format("Error in crawling %s: %s", url, e.getMessage());
+            logger.info(msg);
+            return new CrawlPageResult(index, url, false, 0, List.of(), msg, null, elapsedMillis(start));
+        }
+    }
+
+    private void notifyClient(ToolContext toolContext, CrawlPageResult page) {
+        McpToolUtils.getMcpExchange(toolContext).ifPresent(exchange -> {
+            try {
+                exchange.loggingNotification(McpSchema.LoggingMessageNotification.builder()
+                        .level(McpSchema.LoggingLevel.INFO)
+                        .logger("browser_crawl")
+                        .data(JsonParser.toJson(page))
+                        .build());
+            } catch (Exception e) {
+                logger.info("Error in sending crawl progress: {}", e.getMessage());
+            }
+        });
+    }
+
+    private long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.mcp.service;
+
+import com.example.mcp.config.EventProperties;
+import com.example.mcp.data.LocatorStrategy;
+import com.example.mcp.data.PageEventType;
+import com.example.mcp.data.WaitCondition;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.mcp.McpToolUtils;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class EventService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventService.class);
+
+    // fallbacks for browsers without BiDi: the page counts as settled once these signatures stop changing
+    private static final String NETWORK_SIGNATURE_SCRIPT =
+            "return document.readyState + ':' + performance.getEntriesByType('resource').length;";
+    private static final String DOM_SIGNATURE_SCRIPT =
+            "return document.getElementsByTagName('*').length + ':' + (document.body ? document.body.innerHTML.length : 0);";
+    private static final String PAGE_TEXT_SCRIPT = "return document.body ? document.body.innerText : '';";
+
+    private final SessionManager sessionManager;
+    private final PageEvents pageEvents;
+    private final BrowserActions browserActions;
+    private final WaitEngine waitEngine;
+    private final EventProperties properties;
+    private final BrowserMetrics browserMetrics;
+
+    public EventService(SessionManager sessionManager, PageEvents pageEvents, BrowserActions browserActions,
+                        WaitEngine waitEngine, EventProperties properties, BrowserMetrics browserMetrics) {
+        this.sessionManager = sessionManager;
+        this.pageEvents = pageEvents;
+        this.browserActions = browserActions;
+        this.waitEngine = waitEngine;
+        this.properties = properties;
+        this.browserMetrics = browserMetrics;
+    }
+
+    @Tool(name = "browser_subscribe", description = "Push page events of a session to the client as log notifications (logger browser_events) instead of polling the page: "
+            + "console entries, console errors and uncaught exceptions, network idle, summarized DOM changes and page loads. Replaces the previous subscription, no events unsubscribes")
+    public String subscribe(
+            @ToolParam(description = "Events to receive e.g LOG, CONSOLE_ERROR, NETWORK_IDLE, DOM_CHANGE, NAVIGATION", required = false) List<PageEventType> events,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
+    ) {
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            EnumSet<PageEventType> types = EnumSet.noneOf(PageEventType.class);
+            if (events != null)
+                events.stream().filter(Objects::nonNull).forEach(types::add);
+            McpSyncServerExchange exchange = McpToolUtils.getMcpExchange(toolContext).orElse(null);
+            if (exchange == null && !types.isEmpty())
+                throw new IllegalStateException("Page events are sent as notifications and need an MCP client connection");
+            pageEvents.subscribe(handle.session(), types, exchange);
+            return types.isEmpty()
+                    ? "Unsubscribed from the page events of session " + handle.session().getId()
+                    : String.format("Subscribed to %s events of session %s", types, handle.session().getId());
+        } catch (Exception e) {
+            String msg = "Error in subscribing to page events: " + e.getMessage();
+            logger.info(msg);
+            browserMetrics.recordError(e);
+            return msg;
+        }
+    }
+
+    @Tool(name = "browser_wait_for", description = "Wait on the server until conditions on the page hold, instead of polling with repeated calls, "
+            + "e.g a spinner is gone and the network is idle, or a toast shows a text. All conditions have to hold unless any is true")
+    public String waitFor(
+            @ToolParam(description = "Conditions to wait for") List<WaitCondition> conditions,
+            @ToolParam(description = "Return as soon as any condition holds instead of all of them, default false", required = false) Boolean any,
+            @ToolParam(description = "Timeout value in seconds", required = false) Long timeout,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
+    ) {
+        long start = System.nanoTime();
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            if (conditions == null || conditions.isEmpty() || conditions.stream().anyMatch(c -> c == null || c.type() == null))
+                throw new IllegalArgumentException("Every condition needs a type");
+            BrowserSession session = handle.session();
+            PageEvents.Tracker tracker = pageEvents.track(session);
+            List<Check> checks = conditions.stream().map(condition -> new Check(condition, tracker)).toList();
+            boolean matchAny = Boolean.TRUE.equals(any);
+            try {
+                waitEngine.until(session.getDriver(), new Function<WebDriver, Boolean>() {
+                    @Override
+                    public Boolean apply(WebDriver driver) {
+                        for (Check check : checks) {
+                            check.met = check.evaluate(session);
+                            if (check.met == matchAny)
+                                return matchAny;
+                        }
+                        return !matchAny;
+                    }
+
+                    @Override
+                    public String toString() {
+                        return describe(checks, matchAny);
+                    }
+                }, waitEngine.timeout("browser_wait_for", timeout));
+            } catch (TimeoutException e) {
+                throw new TimeoutException(String.format("%s did not hold within %d ms, not met: %s", describe(checks, matchAny),
+                        elapsedMillis(start), describe(checks.stream().filter(check -> !check.met).toList(), false)));
+            }
+            return String.format("%s after %d ms", describe(checks.stream().filter(check -> check.met).toList(), matchAny),
+                    elapsedMillis(start));
+        } catch (Exception e) {
+            String msg = "Error in waiting for page conditions: " + e.getMessage();
+            logger.info(msg);
+            browserMetrics.recordError(e);
+            return msg;
+        }
+    }
+
+    private String describe(List<Check> checks, boolean matchAny) {
+        return checks.stream().map(check -> describe(check.condition)).collect(Collectors.joining(matchAny ? " or " : " and "));
+    }
+
+    private String describe(WaitCondition condition) {
+        StringBuilder description = new StringBuilder(condition.type().name());
+        if (condition.locatorValue() != null)
+            description.append(" [").append(strategy(condition)).append(", ").append(condition.locatorValue()).append(']');
+        if (condition.text() != null)
+            description.append(" '").append(condition.text()).append('\'');
+        return description.toString();
+    }
+
+    private LocatorStrategy strategy(WaitCondition condition) {
+        return condition.findBy() == null ? LocatorStrategy.cssSelector : condition.findBy();
+    }
+
+    private long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * A condition being waited for, with the state of the signature fallback used without BiDi events.
+     */
+    private final class Check {
+
+        private final WaitCondition condition;
+        private final PageEvents.Tracker tracker;
+        private final long errorsAtStart;
+        private String signature;
+        private long signatureSinceNanos;
+        private boolean met;
+
+        Check(WaitCondition condition, PageEvents.Tracker tracker) {
+            this.condition = condition;
+            this.tracker = tracker;
+            this.errorsAtStart = tracker == null ? 0 : tracker.errorCount();
+        }
+
+        boolean evaluate(BrowserSession session) {
+            WebDriver driver = session.getDriver();
+            return switch (condition.type()) {
+                case ELEMENT_VISIBLE -> elements(session).stream().anyMatch(WebElement::isDisplayed);
+                case ELEMENT_GONE -> elements(session).stream().noneMatch(this::isDisplayed);
+                case TEXT_PRESENT -> condition.locatorValue() == null
+                        ? String.valueOf(((JavascriptExecutor) driver).executeScript(PAGE_TEXT_SCRIPT)).contains(text())
+                        : elements(session).stream().anyMatch(element -> element.getText().contains(text()));
+                case URL_CONTAINS -> Objects.requireNonNullElse(driver.getCurrentUrl(), "").contains(text());
+                case TITLE_CONTAINS -> Objects.requireNonNullElse(driver.getTitle(), "").contains(text());
+                // a fresh tracker misses requests already in flight, the page has to look settled as well
+                case NETWORK_IDLE -> tracker != null && !tracker.mayMissRequests()
+                        ? tracker.isNetworkIdle()
+                        : (tracker == null || tracker.isNetworkIdle())
+                        && isStable(driver, NETWORK_SIGNATURE_SCRIPT, properties.networkIdleTime()) && signature.startsWith("complete");
+                case DOM_STABLE -> tracker != null
+                        ? tracker.isDomStable()
+                        : isStable(driver, DOM_SIGNATURE_SCRIPT, properties.domStableTime());
+                case CONSOLE_ERROR -> {
+                    if (tracker == null)
+                        throw new UnsupportedOperationException("CONSOLE_ERROR needs WebDriver BiDi, which is not available on " + session.getBrowser());
+                    yield tracker.errorCount() > errorsAtStart;
+                }
+            };
+        }
+
+        private List<WebElement> elements(BrowserSession session) {
+            if (condition.locatorValue() == null || condition.locatorValue().isEmpty())
+                throw new IllegalArgumentException(condition.type() + " needs a locatorValue");
+            if (condition.findBy() == LocatorStrategy.ref) {
+                WebElement element = session.getElementRef(condition.locatorValue());
+                return element == null ? List.of() : List.of(element);
+            }
+            return session.getDriver().findElements(browserActions.getLocator(strategy(condition), condition.locatorValue()));
+        }
+
+        // an element that went stale while waiting for it to disappear is gone
+        private boolean isDisplayed(WebElement element) {
+            try {
+                return element.isDisplayed();
+            } catch (StaleElementReferenceException e) {
+                return false;
+            }
+        }
+
+        private String text() {
+            if (condition.text() == null)
+                throw new IllegalArgumentException(condition.type() + " needs a text");
+            return condition.text();
+        }
+
+        private boolean isStable(WebDriver driver, String script, Duration quietTime) {
+            String current = String.valueOf(((JavascriptExecutor) driver).executeScript(script));
+            long now = System.nanoTime();
+            if (!current.equals(signature)) {
+                signature = current;
+                signatureSinceNanos = now;
+            }
+            return now - signatureSinceNanos >= quietTime.toNanos();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.mcp.service;
+
+import com.example.mcp.data.ExtractField;
+import com.example.mcp.data.ExtractResult;
+import com.example.mcp.data.LocatorStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class ExtractService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExtractService.class);
+
+    private final SessionManager sessionManager;
+    private final BrowserActions browserActions;
+    private final BrowserMetrics browserMetrics;
+
+    public ExtractService(SessionManager sessionManager, BrowserActions browserActions, BrowserMetrics browserMetrics) {
+        this.sessionManager = sessionManager;
+        this.browserActions = browserActions;
+        this.browserMetrics = browserMetrics;
+    }
+
+    @Tool(name = "browser_extract", description = "Extract structured rows from the page in a single call, e.g the rows of a table or the items of a list. "
+            + "Every element matching the row locator becomes a row, its fields are read through selectors relative to the row")
+    public ExtractResult extract(
+            @ToolParam(description = "Locator value matching the row elements e.g table#results tbody tr") String rowLocator,
+            @ToolParam(description = "Fields of a row by name e.g {\"title\": {\"selector\": \"a.title\"}, \"link\": {\"selector\": \"a.title\", \"attribute\": \"href\"}, "
+                    + "\"tags\": {\"selector\": \".tag\", \"all\": true}}. selector is a CSS selector relative to the row, empty for the row itself. "
+                    + "attribute is text (default), html or an attribute name. all returns the values of every match as a list") Map<String, ExtractField> fields,
+            @ToolParam(description = "Method name to locate the row elements e.g cssSelector, xpath, className, tag etc. Defaults to cssSelector", required = false) LocatorStrategy findBy,
+            @ToolParam(description = "Index of the first row to return, use nextOffset of the previous call", required = false) Integer offset,
+            @ToolParam(description = "Maximum number of rows to return, default 100", required = false) Integer limit,
+            @ToolParam(description = "Timeout value in seconds to wait for the first row", required = false) Long timeout,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
+    ) {
+        LocatorStrategy strategy = findBy == null ? LocatorStrategy.cssSelector : findBy;
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            return browserActions.extract(handle.session(), strategy, rowLocator, fields, offset, limit, timeout);
+        } catch (Exception e) {
+            String msg = String.format("Error in extracting rows [%s, %s]: %s", strategy, rowLocator, e.getMessage());
+            logger.info(msg);
+            browserMetrics.recordError(e);
+            return new ExtractResult(0, offset == null ? 0 : offset, null, List.of(), msg);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.example.mcp.service;
+
+import com.example.mcp.config.HttpProperties;
+import io.modelcontextprotocol.spec.McpServerTransportProvider;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.mcp.server.autoconfigure.McpServerProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Guards the HTTP/SSE transport. Caps the open SSE streams and the client messages handled at once, rejecting
+ * the rest with 503 and Retry-After instead of queueing them. Idle streams get a heartbeat comment, so a client
+ * that went away without closing its stream gives its connection back on the next heartbeat.
+ * <p>
+ * On shutdown it drains before the web server stops: new streams and messages are rejected, running calls get
+ * up to the drain timeout to finish, then the streams are closed so that the graceful shutdown of the web server
+ * does not wait for them.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class HttpConnectionLimiter extends OncePerRequestFilter implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpConnectionLimiter.class);
+
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpProperties properties;
+    private final McpServerProperties serverProperties;
+    private final ObjectProvider<McpServerTransportProvider> transportProvider;
+    private final BrowserMetrics browserMetrics;
+
+    private final Semaphore streamPermits;
+    private final Semaphore pendingMessages;
+    private final Set<SseStream> streams = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sse-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean running;
+    private volatile boolean draining;
+
+    public HttpConnectionLimiter(HttpProperties properties, McpServerProperties serverProperties,
+                                 ObjectProvider<McpServerTransportProvider> transportProvider, BrowserMetrics browserMetrics) {
+        this.properties = properties;
+        this.serverProperties = serverProperties;
+        this.transportProvider = transportProvider;
+        this.browserMetrics = browserMetrics;
+        this.streamPermits = new Semaphore(properties.maxConnections());
+        this.pendingMessages = new Semaphore(properties.maxPendingMessages());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if ("GET".equals(request.getMethod()) && path.equals(serverProperties.getSseEndpoint()))
+            openStream(request, response, chain);
+        else if ("POST".equals(request.getMethod()) && path.equals(serverProperties.getSseMessageEndpoint()))
+            handleMessage(request, response, chain);
+        else
+            chain.doFilter(request, response);
+    }
+
+    private void openStream(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (draining) {
+            reject(response, "draining", "Server is shutting down");
+            return;
+        }
+        if (!streamPermits.tryAcquire()) {
+            reject(response, "connections", String.format("Connection limit of %d clients reached", properties.maxConnections()));
+            return;
+        }
+        SseStream stream = new SseStream(response);
+        try {
+            chain.doFilter(request, stream);
+        } finally {
+            // the stream outlives this call, its permit is given back once the async request ends
+            if (request.isAsyncStarted()) {
+                stream.asyncContext = request.getAsyncContext();
+                stream.asyncContext.addListener(stream);
+                streams.add(stream);
+            } else {
+                stream.close();
+            }
+        }
+    }
+
+    private void handleMessage(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (draining) {
+            reject(response, "draining", "Server is shutting down");
+            return;
+        }
+        if (!pendingMessages.tryAcquire()) {
+            reject(response, "messages", String.format("Server busy: %d messages in flight", properties.maxPendingMessages()));
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            pendingMessages.release();
+        }
+    }
+
+    private void reject(HttpServletResponse response, String reason, String message) throws IOException {
+        browserMetrics.recordRejectedRequest(reason);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, properties.retryAfter().toSeconds())));
+        response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), message);
+    }
+
+    private void sendHeartbeats() {
+        streams.forEach(SseStream::heartbeat);
+    }
+
+    @Override
+    public void start() {
+        long interval = properties.heartbeatInterval().toMillis();
+        heartbeats.scheduleWithFixedDelay(this::sendHeartbeats, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        draining = true;
+        int inFlight = properties.maxPendingMessages() - pendingMessages.availablePermits();
+        logger.info("Draining HTTP transport, {} streams open and {} messages in flight", streams.size(), inFlight);
+        try {
+            if (!pendingMessages.tryAcquire(properties.maxPendingMessages(), properties.drainTimeout().toMillis(), TimeUnit.MILLISECONDS))
+                logger.info("Drain timeout of {} passed, closing streams with calls still running", properties.drainTimeout());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        McpServerTransportProvider provider = transportProvider.getIfAvailable();
+        if (provider != null) {
+            try {
+                provider.closeGracefully().block(properties.drainTimeout());
+            } catch (Exception e) {
+                logger.info("Error in closing SSE streams: {}", e.getMessage());
+            }
+        }
+        heartbeats.shutdownNow();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stopped before the graceful shutdown of the web server, which would otherwise wait for the open streams
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE + 1;
+    }
+
+    /**
+     * Response of an open SSE stream. Writes of the transport and heartbeats share a lock, a heartbeat is only
+     * written when everything written before has been flushed, i.e. never in the middle of an event.
+     */
+    private final class SseStream extends HttpServletResponseWrapper implements AsyncListener {
+
+        private final Object lock = new Object();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile AsyncContext asyncContext;
+        private ServletOutputStream outputStream;
+        private int unflushedBytes;
+
+        SseStream(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            synchronized (lock) {
+                if (outputStream == null)
+                    outputStream = new GuardedOutputStream(super.getOutputStream());
+                return outputStream;
+            }
+        }
+
+        void heartbeat() {
+            synchronized (lock) {
+                if (closed.get() || outputStream == null || unflushedBytes > 0)
+                    return;
+                try {
+                    getResponse().getOutputStream().write(HEARTBEAT);
+                    getResponse().flushBuffer();
+                } catch (IOException | IllegalStateException e) {
+                    logger.info("SSE client went away: {}", e.getMessage());
+                    complete();
+                }
+            }
+        }
+
+        private void complete() {
+            try {
+                if (asyncContext != null)
+                    asyncContext.complete();
+            } catch (IllegalStateException e) {
+                // already completed by the container
+            }
+            close();
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                streams.remove(this);
+                streamPermits.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private final class GuardedOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            GuardedOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                synchronized (lock) {
+                    delegate.write(b);
+                    unflushedBytes++;
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                synchronized (lock) {
+                    delegate.write(b, off, len);
+                    unflushedBytes += len;
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                synchronized (lock) {
+                    delegate.flush();
+                    unflushedBytes = 0;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                synchronized (lock) {
+                    delegate.close();
+                }
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+    }
+}
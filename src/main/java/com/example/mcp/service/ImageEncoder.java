@@ -0,0 +1,133 @@
+package com.example.mcp.service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Re-encodes PNG screenshots: optional clip, downscale to a maximum width and conversion to JPEG with a quality.
+ * Screenshots needing none of these are returned untouched, without decoding.
+ */
+final class ImageEncoder {
+
+    private ImageEncoder() {
+    }
+
+    static byte[] encode(byte[] png, String format, Float quality, Integer maxWidth, Rectangle clip) {
+        checkFormat(format);
+        checkClip(png, clip);
+        boolean jpeg = isJpeg(format);
+        if (!jpeg && maxWidth == null && clip == null)
+            return png;
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+            if (clip != null)
+                image = image.getSubimage(clip.x, clip.y,
+                        Math.min(clip.width, image.getWidth() - clip.x), Math.min(clip.height, image.getHeight() - clip.y));
+            int width = image.getWidth();
+            int height = image.getHeight();
+            if (maxWidth != null && maxWidth > 0 && width > maxWidth) {
+                height = Math.max(1, height * maxWidth / width);
+                width = maxWidth;
+            }
+            if (jpeg || width != image.getWidth())
+                image = redraw(image, width, height, jpeg ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+            return jpeg ? writeJpeg(image, quality) : writePng(image);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to encode screenshot", e);
+        }
+    }
+
+    /**
+     * Rejects formats other than png and jpeg, instead of writing them as PNG.
+     */
+    static void checkFormat(String format) {
+        if (format != null && !format.isBlank() && !format.equalsIgnoreCase("png") && !isJpeg(format))
+            throw new IllegalArgumentException("Unsupported image format " + format + ", use png or jpeg");
+    }
+
+    /**
+     * Rejects a clip that does not start inside the screenshot, reading its size from the PNG header without
+     * decoding the image. A clip reaching past the edges is cut at them.
+     */
+    static void checkClip(byte[] png, Rectangle clip) {
+        if (clip == null)
+            return;
+        if (clip.x < 0 || clip.y < 0 || clip.width <= 0 || clip.height <= 0)
+            throw new IllegalArgumentException("Clip needs a positive width and height and must not start at a negative position: " + format(clip));
+        // signature (8 bytes), IHDR length and type (8 bytes), then width and height as big endian ints
+        if (png.length < 24 || png[12] != 'I' || png[13] != 'H' || png[14] != 'D' || png[15] != 'R')
+            return;
+        ByteBuffer header = ByteBuffer.wrap(png, 16, 8);
+        int width = header.getInt();
+        int height = header.getInt();
+        if (clip.x >= width || clip.y >= height)
+            throw new IllegalArgumentException(String.format("Clip %s starts outside of the %dx%d screenshot", format(clip), width, height));
+    }
+
+    private static String format(Rectangle clip) {
+        return clip.x + "," + clip.y + "," + clip.width + "," + clip.height;
+    }
+
+    static boolean isJpeg(String format) {
+        return format != null && (format.equalsIgnoreCase("jpeg") || format.equalsIgnoreCase("jpg"));
+    }
+
+    /**
+     * Parses a clip rectangle given as "x,y,width,height".
+     */
+    static Rectangle parseClip(String clip) {
+        if (clip == null || clip.isBlank())
+            return null;
+        String[] parts = clip.split(",");
+        if (parts.length != 4)
+            throw new IllegalArgumentException("Clip should be given as x,y,width,height: " + clip);
+        return new Rectangle(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()),
+                Integer.parseInt(parts[2].trim()), Integer.parseInt(parts[3].trim()));
+    }
+
+    private static BufferedImage redraw(BufferedImage source, int width, int height, int type) {
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] writePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static byte[] writeJpeg(BufferedImage image, Float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality == null ? 0.8f : Math.max(0f, Math.min(1f, quality)));
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.mcp.service;
+
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+/**
+ * Records latency and outcome of every call of the wrapped tool.
+ */
+public class InstrumentedToolCallback implements ToolCallback {
+
+    private final ToolCallback delegate;
+    private final BrowserMetrics browserMetrics;
+
+    public InstrumentedToolCallback(ToolCallback delegate, BrowserMetrics browserMetrics) {
+        this.delegate = delegate;
+        this.browserMetrics = browserMetrics;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return call(toolInput, null);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        long start = System.nanoTime();
+        try {
+            String result = delegate.call(toolInput, toolContext);
+            browserMetrics.recordToolCall(getToolDefinition().name(), System.nanoTime() - start, null);
+            return result;
+        } catch (RuntimeException e) {
+            browserMetrics.recordToolCall(getToolDefinition().name(), System.nanoTime() - start, e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.mcp.service;
+
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Rejects a tool call when the number of calls in flight reached the limit. The exception is reported to the
+ * client as an error result of the call.
+ */
+public class LimitedToolCallback implements ToolCallback {
+
+    private final ToolCallback delegate;
+    private final Semaphore inFlightCalls;
+    private final int limit;
+
+    public LimitedToolCallback(ToolCallback delegate, Semaphore inFlightCalls, int limit) {
+        this.delegate = delegate;
+        this.inFlightCalls = inFlightCalls;
+        this.limit = limit;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return call(toolInput, null);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        if (!inFlightCalls.tryAcquire())
+            throw new IllegalStateException(String.format(
+                    "Server busy: %d tool calls already in flight, retry %s later", limit, getToolDefinition().name()));
+        try {
+            return delegate.call(toolInput, toolContext);
+        } finally {
+            inFlightCalls.release();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.mcp.service;
+
+import com.example.mcp.data.ResourceType;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.bidi.BiDi;
+import org.openqa.selenium.bidi.Event;
+import org.openqa.selenium.bidi.HasBiDi;
+import org.openqa.selenium.bidi.module.Network;
+import org.openqa.selenium.bidi.network.AddInterceptParameters;
+import org.openqa.selenium.bidi.network.ContinueRequestParameters;
+import org.openqa.selenium.bidi.network.InterceptPhase;
+import org.openqa.selenium.chromium.HasCdp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Blocks requests of a session by url pattern and resource type through a WebDriver BiDi intercept that fails
+ * matching requests and lets the others continue. The intercept is not bound to a browsing context, so it covers
+ * tabs and popups opened later too. Resource types are recognized by the fetch destination of the request.
+ * Chromium drivers without BiDi fall back to the DevTools blocked url list, which only covers the tab that was
+ * current when it was set and recognizes resource types by url extension only.
+ */
+@Component
+public class NetworkFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(NetworkFilter.class);
+
+    /**
+     * Replaces the blocked requests of the session, nothing is blocked when both lists are empty.
+     * Returns the number of url patterns in effect.
+     */
+    public int apply(BrowserSession session, List<String> blockedUrls, List<ResourceType> blockedResourceTypes) {
+        List<String> patterns = patterns(blockedUrls, blockedResourceTypes);
+        WebDriver driver = session.getDriver();
+        if (driver instanceof HasBiDi biDi && biDi.maybeGetBiDi().isPresent()) {
+            closeInterception(session);
+            if (!patterns.isEmpty())
+                session.setNetworkInterception(intercept(driver, biDi.getBiDi(), new Rules(blockedUrls, blockedResourceTypes)));
+        } else if (driver instanceof HasCdp cdp) {
+            cdp.executeCdpCommand("Network.enable", Map.of());
+            cdp.executeCdpCommand("Network.setBlockedURLs", Map.of("urls", patterns));
+        } else if (!patterns.isEmpty()) {
+            throw new UnsupportedOperationException("Request blocking is not supported by " + session.getBrowser());
+        }
+        return patterns.size();
+    }
+
+    /**
+     * Stops blocking, called before the driver of the session is handed back to the pool.
+     */
+    public void clear(BrowserSession session) {
+        try {
+            if (session.getNetworkInterception() != null)
+                closeInterception(session);
+            else if (session.getDriver() instanceof HasCdp cdp)
+                cdp.executeCdpCommand("Network.setBlockedURLs", Map.of("urls", List.of()));
+        } catch (Exception e) {
+            logger.info("Error in clearing blocked requests of {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    private Interception intercept(WebDriver driver, BiDi biDi, Rules rules) {
+        Network network = new Network(driver);
+        String interceptId = network.addIntercept(new AddInterceptParameters(InterceptPhase.BEFORE_REQUEST_SENT));
+        try {
+            // registered by id, Network.close() would also drop the request listeners of the page events. Read as a
+            // map since the typed event leaves out the destination and initiator type of the request
+            long listenerId = biDi.addListener(new Event<Map<String, Object>>("network.beforeRequestSent", params -> params), params -> {
+                if (!Boolean.TRUE.equals(params.get("isBlocked")) || !(params.get("request") instanceof Map<?, ?> request))
+                    return;
+                String requestId = String.valueOf(request.get("request"));
+                if (rules.blocks(request))
+                    network.failRequest(requestId);
+                else
+                    network.continueRequest(new ContinueRequestParameters(requestId));
+            });
+            return new Interception(biDi, network, interceptId, listenerId);
+        } catch (RuntimeException e) {
+            network.removeIntercept(interceptId);
+            throw e;
+        }
+    }
+
+    private void closeInterception(BrowserSession session) {
+        Interception interception = session.getNetworkInterception();
+        session.setNetworkInterception(null);
+        if (interception != null)
+            interception.close();
+    }
+
+    private static List<String> patterns(List<String> blockedUrls, List<ResourceType> blockedResourceTypes) {
+        List<String> patterns = new ArrayList<>();
+        if (blockedUrls != null)
+            blockedUrls.stream().filter(Objects::nonNull).map(String::trim).filter(url -> !url.isEmpty()).forEach(patterns::add);
+        if (blockedResourceTypes != null)
+            blockedResourceTypes.stream().filter(Objects::nonNull).distinct().forEach(type -> {
+                for (String extension : type.extensions()) {
+                    patterns.add("*." + extension);
+                    patterns.add("*." + extension + "?*");
+                }
+            });
+        return patterns;
+    }
+
+    // same semantics as the DevTools blocked urls: * matches any characters, everything else is literal
+    private static String toRegex(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        for (String part : pattern.split("\\*", -1)) {
+            if (!regex.isEmpty())
+                regex.append(".*");
+            regex.append(Pattern.quote(part));
+        }
+        return regex.toString();
+    }
+
+    /**
+     * What the BiDi intercept blocks: urls matching a pattern, and requests of a blocked resource type. The type is
+     * taken from the fetch destination where the browser reports it, an empty destination (fetch, XHR) is no
+     * resource type. Without a destination the initiator type is used, and the url extension as a last resort.
+     */
+    private static final class Rules {
+
+        private final Pattern urls;
+        private final Pattern extensions;
+        private final Set<String> destinations = new HashSet<>();
+        private final Set<String> initiatorTypes = new HashSet<>();
+
+        Rules(List<String> blockedUrls, List<ResourceType> blockedResourceTypes) {
+            urls = regex(patterns(blockedUrls, null));
+            extensions = regex(patterns(null, blockedResourceTypes));
+            if (blockedResourceTypes != null)
+                blockedResourceTypes.stream().filter(Objects::nonNull).forEach(type -> {
+                    destinations.addAll(type.destinations());
+                    initiatorTypes.addAll(type.initiatorTypes());
+                });
+        }
+
+        boolean blocks(Map<?, ?> request) {
+            String url = String.valueOf(request.get("url"));
+            if (urls != null && urls.matcher(url).matches())
+                return true;
+            if (request.get("destination") instanceof String destination)
+                return destinations.contains(destination);
+            if (request.get("initiatorType") instanceof String initiatorType && !initiatorType.isEmpty()
+                    && !"other".equals(initiatorType) && !"css".equals(initiatorType))
+                return initiatorTypes.contains(initiatorType);
+            return extensions != null && extensions.matcher(url).matches();
+        }
+
+        private static Pattern regex(List<String> patterns) {
+            return patterns.isEmpty() ? null : Pattern.compile(String.join("|", patterns.stream().map(NetworkFilter::toRegex).toList()));
+        }
+    }
+
+    record Interception(BiDi biDi, Network network, String interceptId, long listenerId) {
+
+        void close() {
+            try {
+                network.removeIntercept(interceptId);
+            } finally {
+                biDi.removeListener(listenerId);
+            }
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.mcp.service;
+
+import com.example.mcp.config.EventProperties;
+import com.example.mcp.data.PageEvent;
+import com.example.mcp.data.PageEventType;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema;
+import jakarta.annotation.PreDestroy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.bidi.BiDi;
+import org.openqa.selenium.bidi.Event;
+import org.openqa.selenium.bidi.HasBiDi;
+import org.openqa.selenium.bidi.module.Script;
+import org.openqa.selenium.bidi.script.CallFunctionParameters;
+import org.openqa.selenium.bidi.script.ChannelValue;
+import org.openqa.selenium.bidi.script.ContextTarget;
+import org.openqa.selenium.bidi.script.LocalValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.util.json.JsonParser;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Follows what happens on the pages of a session through WebDriver BiDi events: requests in flight, console
+ * entries, uncaught exceptions and loads, plus DOM mutations reported by an injected MutationObserver. The state
+ * backs the conditions of browser_wait_for, subscribed events are pushed to the client as log notifications.
+ */
+@Component
+public class PageEvents {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageEvents.class);
+
+    private static final String PAGE_EVENTS_SCRIPT = Scripts.load("page-events.js");
+    private static final String CHANNEL = "mcp-page-events";
+    private static final String NOTIFICATION_LOGGER = "browser_events";
+    // requests open for longer, e.g long polling or event streams, do not keep the network busy
+    private static final Duration LONG_REQUEST = Duration.ofSeconds(10);
+
+    private final EventProperties properties;
+    // sends notifications off the BiDi connection thread, in the order the events came in
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "page-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PageEvents(EventProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Starts following the events of the session unless it already does. Returns null when the browser does not
+     * speak WebDriver BiDi. Called while holding the session lock.
+     */
+    Tracker track(BrowserSession session) {
+        Tracker tracker = session.getEventTracker();
+        if (tracker != null)
+            return tracker;
+        WebDriver driver = session.getDriver();
+        if (!(driver instanceof HasBiDi hasBiDi) || hasBiDi.maybeGetBiDi().isEmpty())
+            return null;
+        tracker = new Tracker(session.getId(), hasBiDi.getBiDi());
+        try {
+            tracker.attach(driver);
+        } catch (RuntimeException e) {
+            tracker.close();
+            throw e;
+        }
+        session.setEventTracker(tracker);
+        return tracker;
+    }
+
+    /**
+     * Replaces the events pushed to the client for the session, an empty set stops the notifications.
+     */
+    public void subscribe(BrowserSession session, Set<PageEventType> types, McpSyncServerExchange exchange) {
+        Tracker tracker = track(session);
+        if (tracker == null)
+            throw new UnsupportedOperationException("Page events need WebDriver BiDi, which is not available on " + session.getBrowser());
+        tracker.subscribe(types, exchange);
+    }
+
+    /**
+     * Stops following the events, called before the driver of the session is handed back to the pool.
+     */
+    public void release(BrowserSession session) {
+        Tracker tracker = session.getEventTracker();
+        session.setEventTracker(null);
+        if (tracker != null)
+            tracker.close();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    final class Tracker {
+
+        private final String sessionId;
+        private final BiDi biDi;
+        private final List<Long> listenerIds = new ArrayList<>();
+        private Script script;
+        private String preloadScriptId;
+
+        // start of the requests in flight by request id
+        private final Map<String, Long> requestsInFlight = new ConcurrentHashMap<>();
+        private final AtomicLong errors = new AtomicLong();
+        private final long attachedNanos = System.nanoTime();
+        private volatile long lastNetworkNanos = System.nanoTime();
+        private volatile long lastMutationNanos = System.nanoTime();
+        private volatile boolean idleReported;
+        private volatile Set<PageEventType> subscribed = Set.of();
+        private volatile McpSyncServerExchange exchange;
+
+        private Tracker(String sessionId, BiDi biDi) {
+            this.sessionId = sessionId;
+            this.biDi = biDi;
+        }
+
+        private void attach(WebDriver driver) {
+            listen("network.beforeRequestSent", this::onRequestStarted);
+            listen("network.responseCompleted", this::onRequestFinished);
+            listen("network.fetchError", this::onRequestFinished);
+            listen("log.entryAdded", this::onLogEntry);
+            listen("browsingContext.load", this::onLoad);
+            listen("script.message", this::onMessage);
+            // the preload script covers documents loaded from now on, the current one gets the observer directly
+            String function = "(channel) => (" + PAGE_EVENTS_SCRIPT + ")(channel, " + properties.domChangeInterval().toMillis() + ")";
+            script = new Script(driver);
+            preloadScriptId = script.addPreloadScript(function, List.of(new ChannelValue(CHANNEL)));
+            script.callFunction(new CallFunctionParameters(new ContextTarget(driver.getWindowHandle()), function, false)
+                    .arguments(List.<LocalValue>of(new ChannelValue(CHANNEL))));
+        }
+
+        private void subscribe(Set<PageEventType> types, McpSyncServerExchange exchange) {
+            this.exchange = exchange;
+            this.subscribed = Set.copyOf(types);
+            idleReported = false;
+            if (isNetworkIdle())
+                executor.execute(this::reportNetworkIdle);
+        }
+
+        /**
+         * No requests in flight, apart from long running ones, for the network idle time.
+         */
+        boolean isNetworkIdle() {
+            long now = System.nanoTime();
+            long busy = requestsInFlight.values().stream().filter(start -> now - start < LONG_REQUEST.toNanos()).count();
+            return busy <= properties.networkIdleRequests() && now - lastNetworkNanos >= properties.networkIdleTime().toNanos();
+        }
+
+        /**
+         * Requests started before the tracker attached are not seen until they finish, so shortly after attaching
+         * an empty network does not mean idle. Past the long request time they would not count anyway.
+         */
+        boolean mayMissRequests() {
+            return System.nanoTime() - attachedNanos < LONG_REQUEST.toNanos();
+        }
+
+        /**
+         * No DOM mutations for the DOM stable time.
+         */
+        boolean isDomStable() {
+            return System.nanoTime() - lastMutationNanos >= properties.domStableTime().toNanos();
+        }
+
+        /**
+         * Console errors and uncaught exceptions seen so far.
+         */
+        long errorCount() {
+            return errors.get();
+        }
+
+        private void onRequestStarted(Map<String, Object> params) {
+            String requestId = requestId(params);
+            if (requestId != null)
+                requestsInFlight.put(requestId, System.nanoTime());
+            networkActivity();
+        }
+
+        private void onRequestFinished(Map<String, Object> params) {
+            String requestId = requestId(params);
+            if (requestId != null)
+                requestsInFlight.remove(requestId);
+            networkActivity();
+            if (subscribed.contains(PageEventType.NETWORK_IDLE) && requestsInFlight.size() <= properties.networkIdleRequests())
+                executor.schedule(this::reportNetworkIdle, properties.networkIdleTime().toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        private void networkActivity() {
+            lastNetworkNanos = System.nanoTime();
+            idleReported = false;
+        }
+
+        private void reportNetworkIdle() {
+            if (idleReported || !isNetworkIdle())
+                return;
+            idleReported = true;
+            emit(PageEventType.NETWORK_IDLE, McpSchema.LoggingLevel.INFO, requestsInFlight.size() + " requests in flight", null);
+        }
+
+        private void onLogEntry(Map<String, Object> params) {
+            String level = String.valueOf(params.get("level"));
+            boolean exception = "javascript".equals(params.get("type"));
+            String text = String.valueOf(params.get("text"));
+            if (exception || "error".equals(level)) {
+                errors.incrementAndGet();
+                if (subscribed.contains(PageEventType.CONSOLE_ERROR)) {
+                    emit(PageEventType.CONSOLE_ERROR, McpSchema.LoggingLevel.ERROR, exception ? "Uncaught " + text : text, null);
+                    return;
+                }
+            }
+            emit(PageEventType.LOG, switch (level) {
+                case "error" -> McpSchema.LoggingLevel.ERROR;
+                case "warn" -> McpSchema.LoggingLevel.WARNING;
+                case "debug" -> McpSchema.LoggingLevel.DEBUG;
+                default -> McpSchema.LoggingLevel.INFO;
+            }, level + ": " + text, null);
+        }
+
+        private void onLoad(Map<String, Object> params) {
+            lastMutationNanos = System.nanoTime();
+            emit(PageEventType.NAVIGATION, McpSchema.LoggingLevel.INFO, "Page loaded", String.valueOf(params.get("url")));
+        }
+
+        private void onMessage(Map<String, Object> params) {
+            if (!CHANNEL.equals(params.get("channel")))
+                return;
+            lastMutationNanos = System.nanoTime();
+            if (params.get("data") instanceof Map<?, ?> data)
+                emit(PageEventType.DOM_CHANGE, McpSchema.LoggingLevel.INFO, String.valueOf(data.get("value")), null);
+        }
+
+        private void emit(PageEventType type, McpSchema.LoggingLevel level, String message, String url) {
+            McpSyncServerExchange client = exchange;
+            if (client == null || !subscribed.contains(type))
+                return;
+            if (message.length() > properties.maxMessageChars())
+                message = message.substring(0, properties.maxMessageChars()) + "...";
+            PageEvent event = new PageEvent(type, sessionId, message, url, System.currentTimeMillis());
+            executor.execute(() -> {
+                try {
+                    client.loggingNotification(McpSchema.LoggingMessageNotification.builder()
+                            .level(level)
+                            .logger(NOTIFICATION_LOGGER)
+                            .data(JsonParser.toJson(event))
+                            .build());
+                } catch (Exception e) {
+                    logger.info("Error in sending page event of {}: {}", sessionId, e.getMessage());
+                }
+            });
+        }
+
+        private void listen(String method, Consumer<Map<String, Object>> handler) {
+            // listeners are removed by id, the modules' close() would drop the listeners of the network filter too
+            listenerIds.add(biDi.addListener(new Event<Map<String, Object>>(method, params -> params), params -> {
+                try {
+                    handler.accept(params);
+                } catch (RuntimeException e) {
+                    logger.info("Error in handling {} of {}: {}", method, sessionId, e.getMessage());
+                }
+            }));
+        }
+
+        private String requestId(Map<String, Object> params) {
+            return params.get("request") instanceof Map<?, ?> request && request.get("request") != null
+                    ? String.valueOf(request.get("request"))
+                    : null;
+        }
+
+        private void close() {
+            exchange = null;
+            subscribed = Set.of();
+            listenerIds.forEach(id -> {
+                try {
+                    biDi.removeListener(id);
+                } catch (Exception e) {
+                    logger.info("Error in removing event listener of {}: {}", sessionId, e.getMessage());
+                }
+            });
+            if (preloadScriptId != null) {
+                try {
+                    script.removePreloadScript(preloadScriptId);
+                } catch (Exception e) {
+                    logger.info("Error in removing page events script of {}: {}", sessionId, e.getMessage());
+                }
+            }
+        }
+    }
+}
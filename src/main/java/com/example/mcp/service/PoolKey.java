@@ -0,0 +1,14 @@
+package com.example.mcp.service;
+
+import com.example.mcp.data.Browser;
+import com.example.mcp.data.BrowserOptions;
+
+/**
+ * Identifies interchangeable drivers: same browser and the same normalized options.
+ */
+record PoolKey(Browser browser, BrowserOptions options) {
+
+    static PoolKey of(Browser browser, BrowserOptions options) {
+        return new PoolKey(browser, BrowserOptions.normalize(options));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.mcp.service;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Resident memory of browser processes, read from /proc. Only available on Linux, elsewhere nothing is found.
+ */
+final class ProcessMemory {
+
+    private static final Path PROC = Paths.get("/proc");
+
+    private ProcessMemory() {
+    }
+
+    /**
+     * Finds the pid of the main browser process of a driver, or -1. Firefox reports it as a capability,
+     * Chrome is found by the profile directory on its command line.
+     */
+    static long browserPid(WebDriver driver) {
+        if (!(driver instanceof HasCapabilities hasCapabilities) || !Files.isDirectory(PROC))
+            return -1;
+        Capabilities capabilities = hasCapabilities.getCapabilities();
+        if (capabilities.getCapability("moz:processID") instanceof Number pid)
+            return pid.longValue();
+        if (capabilities.getCapability("chrome") instanceof Map<?, ?> chrome
+                && chrome.get("userDataDir") instanceof String userDataDir)
+            return findBrowserProcess("--user-data-dir=" + userDataDir);
+        return -1;
+    }
+
+    /**
+     * Sums the resident memory of a process and all of its descendants, e.g. Chrome's renderer processes.
+     * Returns -1 when the process is gone.
+     */
+    static long residentBytes(long pid) {
+        long total = rssOf(pid);
+        if (total < 0)
+            return -1;
+        total += ProcessHandle.of(pid)
+                .map(process -> process.descendants().mapToLong(child -> Math.max(0, rssOf(child.pid()))).sum())
+                .orElse(0L);
+        return total;
+    }
+
+    private static long findBrowserProcess(String argument) {
+        try (Stream<Path> processes = Files.list(PROC)) {
+            return processes
+                    .filter(path -> path.getFileName().toString().chars().allMatch(Character::isDigit))
+                    .filter(path -> {
+                        List<String> arguments = commandLine(path);
+                        // child processes carry the same profile argument plus their --type
+                        return arguments.contains(argument) && arguments.stream().noneMatch(arg -> arg.startsWith("--type="));
+                    })
+                    .mapToLong(path -> Long.parseLong(path.getFileName().toString()))
+                    .findFirst()
+                    .orElse(-1);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static List<String> commandLine(Path process) {
+        try {
+            String cmdline = new String(Files.readAllBytes(process.resolve("cmdline")), StandardCharsets.UTF_8);
+            return List.of(cmdline.split("\0"));
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+
+    private static long rssOf(long pid) {
+        try (Stream<String> lines = Files.lines(PROC.resolve(String.valueOf(pid)).resolve("status"))) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")) * 1024)
+                    .findFirst()
+                    .orElse(0);
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.mcp.service;
+
+import com.example.mcp.config.ProfileProperties;
+import com.example.mcp.data.Browser;
+import com.example.mcp.data.Recording;
+import com.example.mcp.data.StorageSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.util.json.JsonParser;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Named browser profiles kept on disk, one directory per browser and name with the profile's disk cache inside.
+ * A profile is used by one session at a time. Sessions that pass cloneProfile start from a copy of the profile
+ * instead, which is deleted when the session ends, so many sessions can start from the same warmed template.
+ * Storage snapshots and recordings are kept under the same root.
+ */
+@Component
+public class ProfileManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfileManager.class);
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    // lock files of a running browser, a copy must not carry them over
+    private static final Set<String> LOCK_FILES = Set.of("SingletonLock", "SingletonSocket", "SingletonCookie",
+            "lock", "parent.lock", ".parentlock");
+
+    private final Path root;
+    private final Set<Path> profilesInUse = ConcurrentHashMap.newKeySet();
+
+    public ProfileManager(ProfileProperties properties) {
+        this.root = properties.directory() == null || properties.directory().isBlank()
+                ? Paths.get(System.getProperty("user.home"), ".mcp", "profiles")
+                : Paths.get(properties.directory());
+    }
+
+    /**
+     * Returns the directory to launch the browser with, either the profile itself or a fresh copy of it.
+     */
+    public Lease acquire(Browser browser, String name, boolean clone) {
+        Path profile = root.resolve(browser.name()).resolve(validate(name)).toAbsolutePath();
+        try {
+            Files.createDirectories(profile);
+            if (!clone) {
+                if (!profilesInUse.add(profile))
+                    throw new IllegalStateException("Profile " + name + " is in use by another session, pass cloneProfile to start from a copy");
+                return new Lease(profile, false);
+            }
+            Path copy = root.resolve(".clones").resolve(browser.name() + "-" + name + "-" + UUID.randomUUID()).toAbsolutePath();
+            Files.createDirectories(copy.getParent());
+            copy(profile, copy);
+            return new Lease(copy, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error in preparing profile " + name, e);
+        }
+    }
+
+    /**
+     * Gives the profile free again, called once the browser using it has quit. Copies are deleted.
+     */
+    public void release(Lease lease) {
+        if (!lease.copy()) {
+            profilesInUse.remove(lease.directory());
+            return;
+        }
+        try {
+            delete(lease.directory());
+        } catch (IOException e) {
+            logger.info("Error in deleting profile copy {}: {}", lease.directory(), e.getMessage());
+        }
+    }
+
+    public Path saveSnapshot(String name, StorageSnapshot snapshot) throws IOException {
+        Path file = snapshotFile(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, JsonParser.toJson(snapshot), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    public StorageSnapshot loadSnapshot(String name) throws IOException {
+        Path file = snapshotFile(name);
+        if (!Files.exists(file))
+            throw new IllegalArgumentException("No storage snapshot exists with name: " + name);
+        StorageSnapshot snapshot = JsonParser.fromJson(Files.readString(file, StandardCharsets.UTF_8), StorageSnapshot.class);
+        if (snapshot.version() > StorageSnapshot.VERSION)
+            throw new IllegalArgumentException("Storage snapshot " + name + " has the unsupported version " + snapshot.version());
+        return snapshot;
+    }
+
+    private Path snapshotFile(String name) {
+        return root.resolve("snapshots").resolve(validate(name) + ".json");
+    }
+
+    public Path saveRecording(Recording recording) throws IOException {
+        Path file = recordingFile(recording.name());
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, JsonParser.toJson(recording), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    public Recording loadRecording(String name) throws IOException {
+        Path file = recordingFile(name);
+        if (!Files.exists(file))
+            throw new IllegalArgumentException("No recording exists with name: " + name);
+        Recording recording = JsonParser.fromJson(Files.readString(file, StandardCharsets.UTF_8), Recording.class);
+        if (recording.version() > Recording.VERSION)
+            throw new IllegalArgumentException("Recording " + name + " has the unsupported version " + recording.version());
+        return recording;
+    }
+
+    private Path recordingFile(String name) {
+        return root.resolve("recordings").resolve(validate(name) + ".json");
+    }
+
+    private String validate(String name) {
+        if (name == null || !NAME.matcher(name).matches())
+            throw new IllegalArgumentException("Invalid name " + name + ", use up to 64 letters, digits, '.', '_' or '-'");
+        return name;
+    }
+
+    // on Linux cp shares the data blocks of the copy with the profile where the file system supports it
+    private void copy(Path source, Path target) throws IOException {
+        if (!copyWithReflinks(source, target)) {
+            delete(target);
+            Files.walkFileTree(source, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    Files.createDirectories(target.resolve(source.relativize(dir)));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    if (!LOCK_FILES.contains(file.getFileName().toString()))
+                        Files.copy(file, target.resolve(source.relativize(file)),
+                                StandardCopyOption.COPY_ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        try (Stream<Path> files = Files.walk(target)) {
+            for (Path file : files.filter(file -> LOCK_FILES.contains(file.getFileName().toString())).toList())
+                Files.deleteIfExists(file);
+        }
+    }
+
+    private boolean copyWithReflinks(Path source, Path target) {
+        if (!System.getProperty("os.name", "").toLowerCase().contains("linux"))
+            return false;
+        try {
+            Process process = new ProcessBuilder("cp", "-a", "--reflink=auto", source.toString(), target.toString())
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            if (!process.waitFor(5, TimeUnit.MINUTES)) {
+                process.destroyForcibly();
+                return false;
+            }
+            return process.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void delete(Path directory) throws IOException {
+        if (!Files.exists(directory, LinkOption.NOFOLLOW_LINKS))
+            return;
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                Files.deleteIfExists(file);
+        }
+    }
+
+    public record Lease(Path directory, boolean copy) {
+    }
+}
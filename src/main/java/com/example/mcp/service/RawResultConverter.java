@@ -0,0 +1,18 @@
+package com.example.mcp.service;
+
+import org.springframework.ai.tool.execution.ToolCallResultConverter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Passes string results through unchanged. The default converter would serialize them as quoted JSON strings,
+ * which breaks the image content built from tools mapped in spring.ai.mcp.server.tool-response-mime-type and
+ * results that are JSON already.
+ */
+public class RawResultConverter implements ToolCallResultConverter {
+
+    @Override
+    public String convert(Object result, Type returnType) {
+        return (String) result;
+    }
+}
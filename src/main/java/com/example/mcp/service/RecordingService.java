@@ -0,0 +1,191 @@
+package com.example.mcp.service;
+
+import com.example.mcp.config.RecordingProperties;
+import com.example.mcp.data.BatchAction;
+import com.example.mcp.data.BatchStep;
+import com.example.mcp.data.BatchStepResult;
+import com.example.mcp.data.LocatorStrategy;
+import com.example.mcp.data.RecordAction;
+import com.example.mcp.data.RecordedStep;
+import com.example.mcp.data.Recording;
+import com.example.mcp.data.ReplayResult;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Records the page changing tool calls of a session and replays them. A replayed step first waits a short time for
+ * the element at the selector resolved while recording. When the page diverged and it does not show up, the step is
+ * run like the original tool call, with the locator it was called with and the normal timeout of the tool.
+ */
+@Service
+public class RecordingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordingService.class);
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^}]+)}");
+
+    private final SessionManager sessionManager;
+    private final BrowserActions browserActions;
+    private final ProfileManager profileManager;
+    private final RecordingProperties properties;
+    private final BrowserMetrics browserMetrics;
+
+    public RecordingService(SessionManager sessionManager, BrowserActions browserActions, ProfileManager profileManager,
+                            RecordingProperties properties, BrowserMetrics browserMetrics) {
+        this.sessionManager = sessionManager;
+        this.browserActions = browserActions;
+        this.profileManager = profileManager;
+        this.properties = properties;
+        this.browserMetrics = browserMetrics;
+    }
+
+    @Tool(name = "browser_record", description = "Start recording the tool calls of a session that change the page (navigate, click, send keys, hover, press key, upload, javascript), "
+            + "also inside browser_batch, or stop and save the recording under its name for browser_replay")
+    public String record(
+            @ToolParam(description = "Recording action to perform e.g START, STOP") RecordAction action,
+            @ToolParam(description = "Name of the recording, required to START", required = false) String name,
+            @ToolParam(description = "Secret values typed while recording e.g {\"password\": \"...\"}, stored as ${name} placeholders "
+                    + "that browser_replay fills in from its variables. Text typed into password fields is always stored as ${password}", required = false) Map<String, String> variables,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
+    ) {
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            BrowserSession session = handle.session();
+            switch (action) {
+                case START -> {
+                    if (name == null || name.isBlank())
+                        throw new IllegalArgumentException("A recording needs a name");
+                    session.startRecording(name, variables);
+                    return String.format("Recording %s on session %s", name, session.getId());
+                }
+                case STOP -> {
+                    Recording recording = session.stopRecording();
+                    if (recording == null)
+                        throw new IllegalStateException("Session " + session.getId() + " is not recording");
+                    Path file = profileManager.saveRecording(recording);
+                    return String.format("Saved %d steps of recording %s to %s", recording.steps().size(), recording.name(), file);
+                }
+            }
+            return "Recording action performed successfully.";
+        } catch (Exception e) {
+            String msg = String.format("Error in performing recording action %s: %s", action, e.getMessage());
+            logger.info(msg);
+            browserMetrics.recordError(e);
+            return msg;
+        }
+    }
+
+    @Tool(name = "browser_replay", description = "Run a recording saved by browser_record at machine speed, in a single call. "
+            + "Steps whose recorded element is not found fall back to the locator and timeout of the original call")
+    public ReplayResult replay(
+            @ToolParam(description = "Name of the recording") String name,
+            @ToolParam(description = "Values of the ${name} placeholders in the inputs of the recording e.g {\"password\": \"...\"}", required = false) Map<String, String> variables,
+            @ToolParam(description = "Keep running the remaining steps when a step fails, default false", required = false) Boolean continueOnError,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
+    ) {
+        long replayStart = System.nanoTime();
+        List<BatchStepResult> results = new ArrayList<>();
+        int fastPathSteps = 0;
+        int fallbackSteps = 0;
+        boolean completed = true;
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            List<RecordedStep> steps = profileManager.loadRecording(name).steps();
+            for (int i = 0; i < steps.size(); i++) {
+                RecordedStep step = steps.get(i);
+                long stepStart = System.nanoTime();
+                try {
+                    String input = substitute(step, variables);
+                    boolean fastPath = locateRecorded(handle.session(), step);
+                    String result = browserActions.execute(handle.session(), fastPath ? fastPath(step, input) : fallback(step, input));
+                    results.add(new BatchStepResult(i, step.action(), true, result, elapsedMillis(stepStart)));
+                    if (fastPath || step.selector() == null)
+                        fastPathSteps++;
+                    else
+                        fallbackSteps++;
+                } catch (Exception e) {
+                    String msg = String.format("Error in replay step %d %s [%s]: %s", i, step.action(),
+                            step.selector() != null ? step.selector() : step.locatorValue(), e.getMessage());
+                    logger.info(msg);
+                    browserMetrics.recordError(e);
+                    results.add(new BatchStepResult(i, step.action(), false, msg, elapsedMillis(stepStart)));
+                    completed = false;
+                    if (!Boolean.TRUE.equals(continueOnError))
+                        break;
+                }
+            }
+        } catch (Exception e) {
+            String msg = "Error in replaying recording " + name + ": " + e.getMessage();
+            logger.info(msg);
+            browserMetrics.recordError(e);
+            results.add(new BatchStepResult(results.size(), null, false, msg, 0));
+            completed = false;
+        }
+        return new ReplayResult(completed, fastPathSteps, fallbackSteps, results, elapsedMillis(replayStart));
+    }
+
+    /**
+     * Waits briefly for the element the step acted on while recording. Only a step whose recorded element did not
+     * show up falls back to its original locator, a step that failed after it started to act is never run twice.
+     */
+    private boolean locateRecorded(BrowserSession session, RecordedStep step) {
+        if (step.selector() == null)
+            return false;
+        try {
+            browserActions.findElement(session, LocatorStrategy.cssSelector, step.selector(), properties.fastPathTimeout());
+            return true;
+        } catch (NoSuchElementException | TimeoutException e) {
+            logger.info("Replay step {} [{}] diverged, falling back: {}", step.action(), step.selector(), e.getMessage());
+            return false;
+        }
+    }
+
+    // the resolved selector, its element is already located and cached by locateRecorded
+    private BatchStep fastPath(RecordedStep step, String input) {
+        return new BatchStep(step.action(), LocatorStrategy.cssSelector, step.selector(), input, null);
+    }
+
+    // the step as originally called, with the default timeout of the tool
+    private BatchStep fallback(RecordedStep step, String input) {
+        if (step.findBy() != null && step.locatorValue() != null)
+            return new BatchStep(step.action(), step.findBy(), step.locatorValue(), input, null);
+        return new BatchStep(step.action(), step.selector() == null ? null : LocatorStrategy.cssSelector, step.selector(), input, null);
+    }
+
+    private String substitute(RecordedStep step, Map<String, String> variables) {
+        String input = step.input();
+        if (input == null)
+            return null;
+        if (variables != null) {
+            for (Map.Entry<String, String> variable : variables.entrySet()) {
+                if (variable.getValue() != null)
+                    input = input.replace("${" + variable.getKey() + "}", variable.getValue());
+            }
+        }
+        // ${...} is template literal syntax in scripts, elsewhere it can only be a placeholder without a value
+        if (step.action() != BatchAction.EXECUTE_JAVASCRIPT) {
+            Matcher unresolved = PLACEHOLDER.matcher(input);
+            if (unresolved.find())
+                throw new IllegalArgumentException(String.format("Missing variable %s, pass it in the variables of browser_replay",
+                        unresolved.group(1)));
+        }
+        return input;
+    }
+
+    private long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
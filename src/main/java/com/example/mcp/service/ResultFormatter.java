@@ -0,0 +1,171 @@
+package com.example.mcp.service;
+
+import com.example.mcp.config.ResultProperties;
+import com.example.mcp.data.ToolResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openqa.selenium.InvalidArgumentException;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.springframework.ai.util.json.JsonParser;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Central result layer of the tools: text is whitespace-collapsed keeping indentation, results are cut at the size budget of the tool
+ * with the rest kept for browser_continue, errors are reduced to a one line summary with a status code, and
+ * everything is wrapped in a {@link ToolResult}.
+ */
+@Component
+public class ResultFormatter {
+
+    static final String CONTINUE_TOOL = "browser_continue";
+
+    // runs of horizontal space after the first non-space character of a line, indentation is left alone
+    private static final Pattern LINE_BREAK = Pattern.compile("\\r\\n?");
+    private static final Pattern INNER_SPACE = Pattern.compile("(?<=[^\\s\\u00A0])[ \\t\\x0B\\f\\r\\u00A0]+");
+    private static final Pattern TRAILING_SPACE = Pattern.compile("[ \\t\\x0B\\f\\r\\u00A0]+$", Pattern.MULTILINE);
+    private static final Pattern BLANK_LINES = Pattern.compile("\\n{3,}");
+    private static final Pattern LEADING_LINES = Pattern.compile("^\\n+");
+
+    private final ResultProperties properties;
+    // rest of truncated results by handle, least recently stored dropped first
+    private final Map<String, Remainder> remainders;
+
+    public ResultFormatter(ResultProperties properties) {
+        this.properties = properties;
+        this.remainders = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Remainder> eldest) {
+                return size() > properties.maxContinuations();
+            }
+        };
+    }
+
+    public boolean isRaw(String toolName) {
+        return CONTINUE_TOOL.equals(toolName) || properties.rawTools().contains(toolName);
+    }
+
+    /**
+     * Shapes the converted result of a tool call, {@code error} is the failure the tool reported if any.
+     */
+    public String format(String toolName, String result, Exception error) {
+        JsonNode json = parse(result);
+        boolean text = json == null || json.isTextual();
+        if (error != null && text) {
+            String message = json == null ? result : json.asText();
+            return render(new ToolResult("error", code(error), summarize(message), null, null), summarize(message));
+        }
+        String content;
+        if (text) {
+            content = json == null ? result : json.asText();
+            if (properties.collapseWhitespace() && !properties.verbatimTools().contains(toolName))
+                content = collapse(content);
+        } else {
+            content = json.toString();
+            if (content.length() <= properties.maxCharsFor(toolName))
+                return render(new ToolResult(error == null ? "ok" : "error", error == null ? null : code(error), json, null, null), content);
+        }
+        return chunk(toolName, content, error == null ? null : code(error));
+    }
+
+    /**
+     * Formats a failure that was thrown by the tool instead of being reported through its result.
+     */
+    public String formatThrown(Throwable error) {
+        String message = summarize(error.getMessage() == null ? error.getClass().getSimpleName() : error.getMessage());
+        return render(new ToolResult("error", code(error), message, null, null), message);
+    }
+
+    /**
+     * Returns the next chunk of a truncated result.
+     */
+    public String next(String handle) {
+        Remainder remainder;
+        synchronized (remainders) {
+            remainder = handle == null ? null : remainders.remove(handle);
+        }
+        if (remainder == null || System.nanoTime() - remainder.storedNanos() > properties.continuationTtl().toNanos()) {
+            String message = "Unknown or expired continuation handle: " + handle;
+            return render(new ToolResult("error", "invalid_argument", message, null, null), message);
+        }
+        return chunk(remainder.toolName(), remainder.content(), remainder.code());
+    }
+
+    private String chunk(String toolName, String content, String code) {
+        int budget = Math.max(1, properties.maxCharsFor(toolName));
+        if (content.length() <= budget)
+            return render(new ToolResult(code == null ? "ok" : "error", code, content, null, null), content);
+        int end = Character.isHighSurrogate(content.charAt(budget - 1)) ? budget - 1 : budget;
+        String handle = UUID.randomUUID().toString().substring(0, 13);
+        String rest = content.substring(end);
+        synchronized (remainders) {
+            remainders.put(handle, new Remainder(toolName, rest, code, System.nanoTime()));
+        }
+        String head = content.substring(0, end);
+        ToolResult result = new ToolResult(code == null ? "ok" : "error", code, head, handle, rest.length());
+        return render(result, String.format("%s%n... truncated, %d more characters, call %s with handle %s",
+                head, rest.length(), CONTINUE_TOOL, handle));
+    }
+
+    private String render(ToolResult result, String plainText) {
+        return properties.structured() ? JsonParser.toJson(result) : plainText;
+    }
+
+    private JsonNode parse(String result) {
+        if (result == null || result.isEmpty())
+            return null;
+        try {
+            return JsonParser.getObjectMapper().readTree(result);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private String collapse(String text) {
+        String collapsed = LINE_BREAK.matcher(text).replaceAll("\n");
+        collapsed = TRAILING_SPACE.matcher(collapsed).replaceAll("");
+        collapsed = INNER_SPACE.matcher(collapsed).replaceAll(" ");
+        collapsed = BLANK_LINES.matcher(collapsed).replaceAll("\n\n");
+        return LEADING_LINES.matcher(collapsed).replaceAll("");
+    }
+
+    // first line of the message, Selenium appends session, build and driver details on the following lines
+    private String summarize(String message) {
+        String summary = message.strip();
+        int lineEnd = summary.indexOf('\n');
+        if (lineEnd > 0)
+            summary = summary.substring(0, lineEnd).strip();
+        return summary.length() > properties.maxErrorChars()
+                ? summary.substring(0, properties.maxErrorChars()) + "..."
+                : summary;
+    }
+
+    private String code(Throwable error) {
+        if (error instanceof TimeoutException)
+            return "timeout";
+        if (error instanceof StaleElementReferenceException)
+            return "stale_element";
+        if (error instanceof NotFoundException)
+            return "not_found";
+        if (error instanceof IllegalArgumentException || error instanceof InvalidArgumentException
+                || error instanceof InvalidSelectorException)
+            return "invalid_argument";
+        if (error instanceof IllegalStateException)
+            return "unavailable";
+        if (error instanceof UnsupportedOperationException)
+            return "unsupported";
+        if (error instanceof WebDriverException)
+            return "browser_error";
+        return "internal";
+    }
+
+    private record Remainder(String toolName, String content, String code, long storedNanos) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.mcp.service;
+
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ResultService {
+
+    private final ResultFormatter resultFormatter;
+
+    public ResultService(ResultFormatter resultFormatter) {
+        this.resultFormatter = resultFormatter;
+    }
+
+    @Tool(name = ResultFormatter.CONTINUE_TOOL, description = "Fetch the next part of a truncated tool result",
+            resultConverter = RawResultConverter.class)
+    public String next(
+            @ToolParam(description = "Continuation handle returned with the truncated result") String handle
+    ) {
+        return resultFormatter.next(handle);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.mcp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+/**
+ * Shapes the results of the wrapped tool through the {@link ResultFormatter}. Exceptions thrown by the tool are
+ * logged in full and returned as a short error result instead, except for raw tools whose exceptions are rethrown.
+ */
+public class ResultToolCallback implements ToolCallback {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResultToolCallback.class);
+
+    private final ToolCallback delegate;
+    private final ResultFormatter resultFormatter;
+    private final BrowserMetrics browserMetrics;
+
+    public ResultToolCallback(ToolCallback delegate, ResultFormatter resultFormatter, BrowserMetrics browserMetrics) {
+        this.delegate = delegate;
+        this.resultFormatter = resultFormatter;
+        this.browserMetrics = browserMetrics;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return call(toolInput, null);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        String toolName = getToolDefinition().name();
+        String result;
+        try {
+            result = delegate.call(toolInput, toolContext);
+        } catch (RuntimeException e) {
+            Throwable cause = e instanceof ToolExecutionException && e.getCause() != null ? e.getCause() : e;
+            logger.info("Error in tool {}", toolName, cause);
+            browserMetrics.recordError(cause instanceof Exception exception ? exception : e);
+            // a raw result, e.g image content, cannot carry an error message, the MCP layer turns it into an error result
+            if (resultFormatter.isRaw(toolName))
+                throw e;
+            return resultFormatter.formatThrown(cause);
+        }
+        if (resultFormatter.isRaw(toolName))
+            return result;
+        return resultFormatter.format(toolName, result, browserMetrics.currentError());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.mcp.service;
+
+import com.example.mcp.config.ScreenshotProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Encodes and writes captured screenshots on a bounded background executor, so the tool call returns as soon as
+ * the bytes are in memory. When the queue is full the calling thread does the write itself.
+ */
+@Component
+public class ScreenshotWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScreenshotWriter.class);
+
+    private final ScreenshotProperties properties;
+    private final ThreadPoolExecutor executor;
+
+    public ScreenshotWriter(ScreenshotProperties properties) {
+        this.properties = properties;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(properties.writerThreads(), properties.writerThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.queueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "screenshot-writer-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Schedules the screenshot to be written and returns the path it is written to. Everything that can be checked
+     * up front, the format, the clip and a writable destination, is checked before the call returns.
+     */
+    public Path save(byte[] png, String outputPath, String format, Float quality, Integer maxWidth, Rectangle clip) throws IOException {
+        ImageEncoder.checkFormat(format);
+        ImageEncoder.checkClip(png, clip);
+        Path destination = resolve(outputPath, format);
+        checkWritable(destination);
+        executor.execute(() -> {
+            try {
+                write(destination, ImageEncoder.encode(png, format, quality, maxWidth, clip));
+            } catch (Exception e) {
+                logger.info(String.format("Error in saving screenshot to %s: %s", destination, e.getMessage()));
+            }
+        });
+        return destination;
+    }
+
+    private Path resolve(String outputPath, String format) {
+        if (outputPath != null && !outputPath.trim().isEmpty())
+            return Paths.get(outputPath);
+        String directory = properties.directory() == null || properties.directory().isBlank()
+                ? Paths.get(System.getProperty("user.home"), ".mcp", "screenshots").toString()
+                : properties.directory();
+        return Paths.get(directory, System.currentTimeMillis() + (ImageEncoder.isJpeg(format) ? ".jpg" : ".png"));
+    }
+
+    private void checkWritable(Path destination) throws IOException {
+        if (Files.isDirectory(destination))
+            throw new IllegalArgumentException("Screenshot output path " + destination + " is a directory");
+        Path parentDir = destination.toAbsolutePath().getParent();
+        if (parentDir != null) {
+            Files.createDirectories(parentDir);
+            if (!Files.isWritable(parentDir))
+                throw new IllegalArgumentException("Screenshot directory " + parentDir + " is not writable");
+        }
+        if (Files.exists(destination) && !Files.isWritable(destination))
+            throw new IllegalArgumentException("Screenshot file " + destination + " is not writable");
+    }
+
+    private void write(Path destination, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(destination,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // let pending screenshots reach the disk
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.mcp.service;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Loads the javascript snippets injected into the page from {@code src/main/resources/scripts}.
+ */
+final class Scripts {
+
+    private Scripts() {
+    }
+
+    static String load(String name) {
+        try {
+            return StreamUtils.copyToString(new ClassPathResource("scripts/" + name).getInputStream(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load script " + name, e);
+        }
+    }
+}
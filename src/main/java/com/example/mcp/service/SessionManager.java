@@ -0,0 +1,119 @@
+package com.example.mcp.service;
+
+import com.example.mcp.config.ExecutionProperties;
+import com.example.mcp.data.Browser;
+import org.openqa.selenium.WebDriver;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.mcp.McpToolUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Registry of open browser sessions. Every MCP client has its own current session, so concurrent clients
+ * do not overwrite each other's browser. Tools may also address a session explicitly by its id.
+ */
+@Component
+public class SessionManager {
+
+    private static final Object DEFAULT_CLIENT = new Object();
+
+    private final Map<String, BrowserSession> sessions = new ConcurrentHashMap<>();
+    private final Map<Object, String> currentSessions = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final ExecutionProperties properties;
+    private final Semaphore sessionPermits;
+
+    public SessionManager(ExecutionProperties properties) {
+        this.properties = properties;
+        this.sessionPermits = new Semaphore(properties.maxSessions());
+    }
+
+    /**
+     * Registers a new session as the current session of the calling client. The driver is only started when
+     * the session limit has not been reached yet.
+     */
+    public BrowserSession open(Browser browser, Supplier<WebDriver> driverSupplier, ToolContext toolContext) {
+        BrowserSession session = openBackground(browser, driverSupplier);
+        currentSessions.put(clientKey(toolContext), session.getId());
+        return session;
+    }
+
+    /**
+     * Registers a new session without making it the current session of any client, e.g a worker of browser_crawl.
+     * It counts against the session limit like any other session.
+     */
+    public BrowserSession openBackground(Browser browser, Supplier<WebDriver> driverSupplier) {
+        if (!sessionPermits.tryAcquire())
+            throw new IllegalStateException(String.format(
+                    "Maximum of %d browser sessions reached, close a session first", properties.maxSessions()));
+        WebDriver driver;
+        try {
+            driver = driverSupplier.get();
+        } catch (RuntimeException e) {
+            sessionPermits.release();
+            throw e;
+        }
+        String id = String.format("%s-%s", browser, UUID.randomUUID());
+        BrowserSession session = new BrowserSession(id, browser, driver);
+        sessions.put(id, session);
+        return session;
+    }
+
+    /**
+     * Finds the session with the given id, or the current session of the calling client when no id is given.
+     */
+    public BrowserSession resolve(String sessionId, ToolContext toolContext) {
+        if (sessionId == null || sessionId.isBlank()) {
+            sessionId = currentSessions.get(clientKey(toolContext));
+            if (sessionId == null)
+                throw new IllegalStateException("No active browser sessions exist");
+        }
+        BrowserSession session = sessions.get(sessionId);
+        if (session == null)
+            throw new IllegalStateException("No browser session exists with id: " + sessionId);
+        return session;
+    }
+
+    /**
+     * Resolves the session and locks it until the returned handle is closed.
+     */
+    public BrowserSession.Handle acquire(String sessionId, ToolContext toolContext) {
+        return resolve(sessionId, toolContext).acquire(properties.sessionLockTimeout());
+    }
+
+    /**
+     * Closes the session and forgets it. Called while holding the session lock, so that calls waiting for the
+     * lock see the session closed instead of driving a browser that went back to the pool.
+     */
+    public void remove(BrowserSession session) {
+        session.markClosed();
+        if (sessions.remove(session.getId()) != null)
+            sessionPermits.release();
+        synchronized (currentSessions) {
+            currentSessions.values().removeIf(session.getId()::equals);
+        }
+    }
+
+    public boolean isAtCapacity() {
+        return sessionPermits.availablePermits() == 0;
+    }
+
+    public Collection<BrowserSession> getSessions() {
+        return sessions.values();
+    }
+
+    // the client info is created once per MCP session and shared by all of its exchanges, so its identity
+    // tells clients apart. Calls without an MCP exchange share a default client.
+    private Object clientKey(ToolContext toolContext) {
+        return McpToolUtils.getMcpExchange(toolContext)
+                .map(exchange -> (Object) exchange.getClientInfo())
+                .orElse(DEFAULT_CLIENT);
+    }
+}
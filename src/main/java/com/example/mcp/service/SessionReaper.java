@@ -0,0 +1,132 @@
+package com.example.mcp.service;
+
+import com.example.mcp.config.ReaperProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closes sessions that clients leave behind: idle for longer than the idle timeout, open for longer than the
+ * maximum lifetime, or using more memory than allowed. Sessions with a running call are left alone until the
+ * next run. The drivers of reaped sessions are quit in parallel.
+ */
+@Component
+public class SessionReaper {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionReaper.class);
+
+    private static final Duration QUIT_TIMEOUT = Duration.ofSeconds(30);
+
+    private final SessionManager sessionManager;
+    private final WebDriverPool driverPool;
+    private final ReaperProperties properties;
+    private final BrowserMetrics browserMetrics;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "session-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SessionReaper(SessionManager sessionManager, WebDriverPool driverPool, ReaperProperties properties,
+                         BrowserMetrics browserMetrics) {
+        this.sessionManager = sessionManager;
+        this.driverPool = driverPool;
+        this.properties = properties;
+        this.browserMetrics = browserMetrics;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.enabled())
+            return;
+        long interval = properties.interval().toMillis();
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                reap();
+            } catch (Exception e) {
+                logger.info("Error in reaping browser sessions: {}", e.getMessage());
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Closes the least recently used session when the session limit is reached, so that a new one can be opened.
+     * Only sessions idle for at least the minimum idle time are candidates. Returns false if nothing was closed.
+     */
+    public boolean evictLeastRecentlyUsed() {
+        if (!properties.evictLeastRecentlyUsed() || !sessionManager.isAtCapacity())
+            return false;
+        long now = System.nanoTime();
+        Optional<BrowserSession> leastRecentlyUsed = sessionManager.getSessions().stream()
+                .filter(session -> !session.isBusy() && session.idleNanos(now) >= properties.evictMinIdle().toNanos())
+                .min(Comparator.comparingLong(BrowserSession::getLastUsedNanos));
+        return leastRecentlyUsed.isPresent() && close(Map.of(leastRecentlyUsed.get(), "lru")) > 0;
+    }
+
+    void reap() {
+        long now = System.nanoTime();
+        Map<BrowserSession, String> expired = new LinkedHashMap<>();
+        for (BrowserSession session : sessionManager.getSessions()) {
+            if (session.ageNanos(now) > properties.maxLifetime().toNanos())
+                expired.put(session, "lifetime");
+            else if (session.idleNanos(now) > properties.idleTimeout().toNanos())
+                expired.put(session, "idle");
+            else if (properties.maxRss() != null && residentBytes(session) > properties.maxRss().toBytes())
+                expired.put(session, "memory");
+        }
+        if (!expired.isEmpty())
+            close(expired);
+    }
+
+    private long residentBytes(BrowserSession session) {
+        if (session.getBrowserPid() == 0)
+            session.setBrowserPid(ProcessMemory.browserPid(session.getDriver()));
+        return session.getBrowserPid() > 0 ? ProcessMemory.residentBytes(session.getBrowserPid()) : -1;
+    }
+
+    private int close(Map<BrowserSession, String> sessions) {
+        List<BrowserSession.Handle> handles = new ArrayList<>();
+        List<WebDriver> drivers = new ArrayList<>();
+        sessions.forEach((session, reason) -> {
+            BrowserSession.Handle handle;
+            try {
+                handle = session.tryAcquire();
+            } catch (IllegalStateException e) {
+                // closed by its client in the meantime
+                return;
+            }
+            if (handle == null)
+                return;
+            logger.info("Closing browser session {}, reason: {}", session.getId(), reason);
+            sessionManager.remove(session);
+            browserMetrics.recordReap(reason);
+            handles.add(handle);
+            drivers.add(handle.driver());
+        });
+        try {
+            driverPool.discardAll(drivers, QUIT_TIMEOUT);
+        } finally {
+            handles.forEach(BrowserSession.Handle::close);
+        }
+        return drivers.size();
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.mcp.service;
+
+import com.example.mcp.data.StorageAction;
+import com.example.mcp.data.StorageSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+
+@Service
+public class StorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageService.class);
+
+    private final SessionManager sessionManager;
+    private final StorageSnapshots storageSnapshots;
+    private final ProfileManager profileManager;
+    private final BrowserMetrics browserMetrics;
+
+    public StorageService(SessionManager sessionManager, StorageSnapshots storageSnapshots, ProfileManager profileManager,
+                          BrowserMetrics browserMetrics) {
+        this.sessionManager = sessionManager;
+        this.storageSnapshots = storageSnapshots;
+        this.profileManager = profileManager;
+        this.browserMetrics = browserMetrics;
+    }
+
+    @Tool(name = "browser_storage", description = "Save the cookies and the web storage of the current page under a name, or restore a saved snapshot "
+            + "into a session e.g to reuse a login. Web storage is restored only when the page has the origin the snapshot was taken on")
+    public String storage(
+            @ToolParam(description = "Storage action to perform e.g SAVE, RESTORE") StorageAction action,
+            @ToolParam(description = "Name of the snapshot") String name,
+            @ToolParam(description = "Session id returned by browser_open, defaults to the current session of the client", required = false) String sessionId,
+            ToolContext toolContext
+    ) {
+        try (BrowserSession.Handle handle = sessionManager.acquire(sessionId, toolContext)) {
+            switch (action) {
+                case SAVE -> {
+                    StorageSnapshot snapshot = storageSnapshots.capture(handle.session());
+                    Path file = profileManager.saveSnapshot(name, snapshot);
+                    return String.format("Saved %d cookies and the web storage of %s to %s",
+                            snapshot.cookies().size(), snapshot.origin(), file);
+                }
+                case RESTORE -> {
+                    return storageSnapshots.restore(handle.session(), profileManager.loadSnapshot(name));
+                }
+            }
+            return "Storage action performed successfully.";
+        } catch (Exception e) {
+            String msg = String.format("Error in performing storage action %s: %s", action, e.getMessage());
+            logger.info(msg);
+            browserMetrics.recordError(e);
+            return msg;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.mcp.service;
+
+import com.example.mcp.data.SnapshotCookie;
+import com.example.mcp.data.StorageSnapshot;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.InvalidCookieDomainException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.bidi.HasBiDi;
+import org.openqa.selenium.bidi.module.Storage;
+import org.openqa.selenium.bidi.network.BytesValue;
+import org.openqa.selenium.bidi.storage.CookieFilter;
+import org.openqa.selenium.bidi.storage.GetCookiesParameters;
+import org.openqa.selenium.bidi.storage.PartialCookie;
+import org.openqa.selenium.bidi.storage.SetCookieParameters;
+import org.openqa.selenium.chromium.HasCdp;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Captures and restores cookies and web storage of a session. Cookies of all sites are read through DevTools on
+ * Chrome and BiDi on Firefox, other browsers only expose the cookies of the current page. Web storage is only
+ * reachable for the origin of the current page.
+ */
+@Component
+public class StorageSnapshots {
+
+    private static final String STORAGE_SCRIPT = Scripts.load("storage.js");
+
+    public StorageSnapshot capture(BrowserSession session) {
+        WebDriver driver = session.getDriver();
+        Map<?, ?> storage = (Map<?, ?>) ((JavascriptExecutor) driver).executeScript(STORAGE_SCRIPT, null, null);
+        return new StorageSnapshot(StorageSnapshot.VERSION, (String) storage.get("origin"), readCookies(driver),
+                strings(storage.get("local")), strings(storage.get("session")));
+    }
+
+    /**
+     * Restores all cookies, and the web storage when the current page has the origin the snapshot was taken on.
+     */
+    public String restore(BrowserSession session, StorageSnapshot snapshot) {
+        WebDriver driver = session.getDriver();
+        int restored = writeCookies(driver, snapshot.cookies() == null ? List.of() : snapshot.cookies());
+        String result = String.format("Restored %d cookies", restored);
+        if (snapshot.origin() == null)
+            return result;
+        Map<?, ?> current = (Map<?, ?>) ((JavascriptExecutor) driver).executeScript(STORAGE_SCRIPT, null, null);
+        if (!snapshot.origin().equals(current.get("origin")))
+            return result + String.format(", web storage not restored: navigate to %s first", snapshot.origin());
+        ((JavascriptExecutor) driver).executeScript(STORAGE_SCRIPT, snapshot.localStorage(), snapshot.sessionStorage());
+        return result + " and the web storage of " + snapshot.origin();
+    }
+
+    private List<SnapshotCookie> readCookies(WebDriver driver) {
+        List<SnapshotCookie> cookies = new ArrayList<>();
+        if (driver instanceof HasCdp cdp) {
+            List<?> all = (List<?>) cdp.executeCdpCommand("Network.getAllCookies", Map.of()).get("cookies");
+            for (Object item : all) {
+                Map<?, ?> cookie = (Map<?, ?>) item;
+                double expires = ((Number) cookie.get("expires")).doubleValue();
+                cookies.add(new SnapshotCookie((String) cookie.get("name"), (String) cookie.get("value"),
+                        (String) cookie.get("domain"), (String) cookie.get("path"),
+                        Boolean.TRUE.equals(cookie.get("secure")), Boolean.TRUE.equals(cookie.get("httpOnly")),
+                        cookie.get("sameSite") == null ? null : cookie.get("sameSite").toString().toLowerCase(Locale.ROOT),
+                        expires > 0 ? (long) expires : null));
+            }
+        } else if (driver instanceof HasBiDi biDi && biDi.maybeGetBiDi().isPresent()) {
+            new Storage(driver).getCookies(new GetCookiesParameters(new CookieFilter())).getCookies().stream()
+                    .filter(cookie -> cookie.getValue().getType() == BytesValue.Type.STRING)
+                    .forEach(cookie -> cookies.add(new SnapshotCookie(cookie.getName(), cookie.getValue().getValue(),
+                            cookie.getDomain(), cookie.getPath(), cookie.isSecure(), cookie.isHttpOnly(),
+                            cookie.getSameSite() == null ? null : cookie.getSameSite().toString().toLowerCase(Locale.ROOT),
+                            cookie.getExpiry().orElse(null))));
+        } else {
+            driver.manage().getCookies().forEach(cookie -> cookies.add(new SnapshotCookie(cookie.getName(), cookie.getValue(),
+                    cookie.getDomain(), cookie.getPath(), cookie.isSecure(), cookie.isHttpOnly(),
+                    cookie.getSameSite() == null ? null : cookie.getSameSite().toLowerCase(Locale.ROOT),
+                    cookie.getExpiry() == null ? null : cookie.getExpiry().getTime() / 1000)));
+        }
+        return cookies;
+    }
+
+    private int writeCookies(WebDriver driver, List<SnapshotCookie> cookies) {
+        if (driver instanceof HasCdp cdp) {
+            List<Map<String, Object>> params = new ArrayList<>();
+            for (SnapshotCookie cookie : cookies) {
+                Map<String, Object> param = new HashMap<>();
+                param.put("name", cookie.name());
+                param.put("value", cookie.value());
+                param.put("domain", cookie.domain());
+                param.put("path", cookie.path());
+                param.put("secure", cookie.secure());
+                param.put("httpOnly", cookie.httpOnly());
+                if (cookie.sameSite() != null)
+                    param.put("sameSite", capitalize(cookie.sameSite()));
+                if (cookie.expiry() != null)
+                    param.put("expires", cookie.expiry());
+                params.add(param);
+            }
+            cdp.executeCdpCommand("Network.setCookies", Map.of("cookies", params));
+            return cookies.size();
+        } else if (driver instanceof HasBiDi biDi && biDi.maybeGetBiDi().isPresent()) {
+            Storage storage = new Storage(driver);
+            for (SnapshotCookie cookie : cookies) {
+                PartialCookie partial = new PartialCookie(cookie.name(), new BytesValue(BytesValue.Type.STRING, cookie.value()), cookie.domain())
+                        .path(cookie.path())
+                        .secure(cookie.secure())
+                        .httpOnly(cookie.httpOnly());
+                if (cookie.sameSite() != null)
+                    partial.sameSite(org.openqa.selenium.bidi.network.Cookie.SameSite.findByName(cookie.sameSite()));
+                if (cookie.expiry() != null)
+                    partial.expiry(cookie.expiry());
+                storage.setCookie(new SetCookieParameters(partial));
+            }
+            return cookies.size();
+        } else {
+            // WebDriver only accepts cookies of the current page's domain, the others are skipped
+            int restored = 0;
+            for (SnapshotCookie cookie : cookies) {
+                try {
+                    driver.manage().addCookie(new Cookie.Builder(cookie.name(), cookie.value())
+                            .domain(cookie.domain())
+                            .path(cookie.path())
+                            .isSecure(cookie.secure())
+                            .isHttpOnly(cookie.httpOnly())
+                            .sameSite(cookie.sameSite() == null ? null : capitalize(cookie.sameSite()))
+                            .expiresOn(cookie.expiry() == null ? null : new Date(cookie.expiry() * 1000))
+                            .build());
+                    restored++;
+                } catch (InvalidCookieDomainException e) {
+                    // cookie of another site
+                }
+            }
+            return restored;
+        }
+    }
+
+    private Map<String, String> strings(Object values) {
+        Map<String, String> result = new HashMap<>();
+        ((Map<?, ?>) values).forEach((key, value) -> result.put(String.valueOf(key), value == null ? null : String.valueOf(value)));
+        return result;
+    }
+
+    private String capitalize(String value) {
+        return value.isEmpty() ? value : Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+}
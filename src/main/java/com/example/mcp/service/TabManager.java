@@ -0,0 +1,196 @@
+package com.example.mcp.service;
+
+import com.example.mcp.config.TabProperties;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WindowType;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Tab operations of browser_tabs on the {@link TabRegistry} of a session. Tabs are found by index or id in the
+ * registry, so a switch is a single driver command. All methods are called while holding the session lock.
+ */
+@Component
+public class TabManager {
+
+    // starts the load and returns, unlike driver.get() which blocks until the page has loaded
+    private static final String START_LOAD_SCRIPT = "window.location.href = arguments[0];";
+
+    private final TabProperties properties;
+
+    public TabManager(TabProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Opens a blank tab and switches to it.
+     */
+    public String open(BrowserSession session) {
+        TabRegistry tabs = tabs(session);
+        checkLimit(tabs, 1);
+        TabRegistry.Tab tab = openTab(session, tabs);
+        return String.format("Opened tab %s at index %d, control switched to it", tab.id(), tabs.indexOf(tab));
+    }
+
+    /**
+     * Opens a tab per url and starts loading all of them without waiting for any load, so the pages load in
+     * parallel. Control stays on the current tab.
+     */
+    public String openAll(BrowserSession session, List<String> urls) {
+        if (urls == null || urls.isEmpty())
+            throw new IllegalArgumentException("Urls required to open tabs");
+        TabRegistry tabs = tabs(session);
+        checkLimit(tabs, urls.size());
+        WebDriver driver = session.getDriver();
+        TabRegistry.Tab origin = tabs.current();
+        List<String> opened = new ArrayList<>();
+        for (String url : urls) {
+            if (!url.contains("://"))
+                url = "https://" + url;
+            TabRegistry.Tab tab = openTab(session, tabs);
+            ((JavascriptExecutor) driver).executeScript(START_LOAD_SCRIPT, url);
+            opened.add(tab.id() + " " + url);
+        }
+        if (origin != null)
+            switchTo(session, tabs, origin);
+        return String.format("Opened %d tabs loading in parallel: %s. Current tab is %s", opened.size(),
+                String.join(", ", opened), origin == null ? tabs.current().id() : origin.id());
+    }
+
+    public String select(BrowserSession session, Integer index, String tabId) {
+        TabRegistry tabs = tabs(session);
+        TabRegistry.Tab tab = find(session, tabs, index, tabId);
+        switchTo(session, tabs, tab);
+        return String.format("Selected tab %s at index %d", tab.id(), tabs.indexOf(tab));
+    }
+
+    /**
+     * Closes the tab, or the current one if none is given. Closing the current tab moves control to its neighbour.
+     */
+    public String close(BrowserSession session, Integer index, String tabId) {
+        TabRegistry tabs = tabs(session);
+        if (index == null && tabId == null && tabs.current() == null)
+            tabs.sync(session.getDriver());
+        TabRegistry.Tab tab = index == null && tabId == null ? tabs.current() : find(session, tabs, index, tabId);
+        if (tab == null)
+            throw new IllegalStateException("No current tab to close");
+        TabRegistry.Tab current = tabs.current();
+        if (tab == current) {
+            TabRegistry.Tab neighbour = tabs.neighbour(tab);
+            closeTab(session, tabs, tab);
+            if (neighbour == null)
+                return "Closed tab " + tab.id() + ", it was the last one";
+            switchTo(session, tabs, neighbour);
+            return String.format("Closed tab %s, control switched to tab %s", tab.id(), neighbour.id());
+        }
+        switchTo(session, tabs, tab);
+        closeTab(session, tabs, tab);
+        if (current != null)
+            switchTo(session, tabs, current);
+        return "Closed tab " + tab.id();
+    }
+
+    /**
+     * Closes every tab except the current one, including tabs and popups the page opened since the registry was
+     * last matched to the browser. Tabs that are already gone are skipped.
+     */
+    public String closeOthers(BrowserSession session) {
+        WebDriver driver = session.getDriver();
+        TabRegistry tabs = session.getTabs();
+        tabs.sync(driver);
+        TabRegistry.Tab current = tabs.current();
+        if (current == null)
+            throw new IllegalStateException("No current tab to keep, select one first");
+        int closed = 0;
+        for (TabRegistry.Tab tab : tabs.all()) {
+            if (tab == current)
+                continue;
+            try {
+                driver.switchTo().window(tab.handle());
+                driver.close();
+                closed++;
+            } catch (NoSuchWindowException e) {
+                // closed by the page in the meantime
+            }
+            tabs.remove(tab);
+        }
+        driver.switchTo().window(current.handle());
+        tabs.setCurrent(current);
+        session.resetPageState();
+        return String.format("Closed %d tabs, tab %s is left", closed, current.id());
+    }
+
+    /**
+     * Lists the tabs after matching the registry to the browser, which picks up tabs opened by the page.
+     */
+    public String list(BrowserSession session) {
+        TabRegistry tabs = session.getTabs();
+        tabs.sync(session.getDriver());
+        List<TabRegistry.Tab> all = tabs.all();
+        return all.stream()
+                .map(tab -> String.format("%d: %s%s", all.indexOf(tab), tab.id(), tab == tabs.current() ? " (current)" : ""))
+                .collect(Collectors.joining("\n", all.size() + " tabs open\n", ""));
+    }
+
+    private TabRegistry tabs(BrowserSession session) {
+        return session.getTabs().ensureSynced(session.getDriver());
+    }
+
+    private TabRegistry.Tab openTab(BrowserSession session, TabRegistry tabs) {
+        WebDriver driver = session.getDriver();
+        driver.switchTo().newWindow(WindowType.TAB);
+        TabRegistry.Tab tab = tabs.add(driver.getWindowHandle());
+        tabs.setCurrent(tab);
+        session.resetPageState();
+        return tab;
+    }
+
+    private void closeTab(BrowserSession session, TabRegistry tabs, TabRegistry.Tab tab) {
+        session.getDriver().close();
+        tabs.remove(tab);
+        session.resetPageState();
+    }
+
+    private void switchTo(BrowserSession session, TabRegistry tabs, TabRegistry.Tab tab) {
+        try {
+            session.getDriver().switchTo().window(tab.handle());
+        } catch (NoSuchWindowException e) {
+            // closed by the page, forget it and the other tabs that are gone
+            tabs.sync(session.getDriver());
+            throw new IllegalArgumentException("Tab " + tab.id() + " is no longer open");
+        }
+        tabs.setCurrent(tab);
+        session.resetPageState();
+    }
+
+    private TabRegistry.Tab find(BrowserSession session, TabRegistry tabs, Integer index, String tabId) {
+        if (tabId != null) {
+            TabRegistry.Tab tab = tabs.get(tabId);
+            if (tab == null)
+                throw new IllegalArgumentException("No open tab with id " + tabId);
+            return tab;
+        }
+        if (index == null)
+            throw new IllegalArgumentException("Tab index or id required");
+        TabRegistry.Tab tab = tabs.get(index);
+        if (tab == null) {
+            // the page may have opened tabs since the registry was last matched to the browser
+            tabs.sync(session.getDriver());
+            tab = tabs.get(index);
+        }
+        if (tab == null)
+            throw new IllegalArgumentException("Tab index should be less than total tabs opened (" + tabs.size() + ")");
+        return tab;
+    }
+
+    private void checkLimit(TabRegistry tabs, int opening) {
+        if (tabs.size() + opening > properties.maxTabs())
+            throw new IllegalStateException(String.format("Opening %d tabs would exceed the limit of %d tabs per session, %d are open",
+                    opening, properties.maxTabs(), tabs.size()));
+    }
+}
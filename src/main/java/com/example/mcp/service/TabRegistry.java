@@ -0,0 +1,120 @@
+package com.example.mcp.service;
+
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The open tabs of a session in the order they were opened, each with an id that stays the same while it is open.
+ * Kept up to date by the tabs browser_tabs opens and closes, so that selecting a tab needs no round trip to list
+ * the window handles. Tabs opened or closed by the page itself are picked up by {@link #sync(WebDriver)}.
+ * Only accessed while holding the session lock.
+ */
+final class TabRegistry {
+
+    private final List<Tab> tabs = new ArrayList<>();
+    private final Map<String, Tab> tabsById = new HashMap<>();
+    private final Map<String, Tab> tabsByHandle = new HashMap<>();
+    private int nextId = 1;
+    private boolean synced;
+    private Tab current;
+
+    /**
+     * Reads the window handles of the driver once, later calls return right away.
+     */
+    TabRegistry ensureSynced(WebDriver driver) {
+        if (!synced)
+            sync(driver);
+        return this;
+    }
+
+    /**
+     * Matches the registry to the window handles of the driver. Known tabs keep their ids, new ones are appended.
+     */
+    void sync(WebDriver driver) {
+        Set<String> handles = driver.getWindowHandles();
+        tabs.removeIf(tab -> {
+            if (handles.contains(tab.handle()))
+                return false;
+            tabsById.remove(tab.id());
+            tabsByHandle.remove(tab.handle());
+            return true;
+        });
+        for (String handle : handles) {
+            if (!tabsByHandle.containsKey(handle))
+                add(handle);
+        }
+        try {
+            current = tabsByHandle.get(driver.getWindowHandle());
+        } catch (NoSuchWindowException e) {
+            // the driver is still on a tab that was closed
+            current = null;
+        }
+        synced = true;
+    }
+
+    Tab add(String handle) {
+        Tab tab = new Tab("t" + nextId++, handle);
+        tabs.add(tab);
+        tabsById.put(tab.id(), tab);
+        tabsByHandle.put(handle, tab);
+        return tab;
+    }
+
+    void remove(Tab tab) {
+        tabs.remove(tab);
+        tabsById.remove(tab.id());
+        tabsByHandle.remove(tab.handle());
+        if (tab == current)
+            current = null;
+    }
+
+    /**
+     * The tab at the index, or null if there are fewer tabs.
+     */
+    Tab get(int index) {
+        return index >= 0 && index < tabs.size() ? tabs.get(index) : null;
+    }
+
+    Tab get(String id) {
+        return tabsById.get(id);
+    }
+
+    /**
+     * The tab to move to when the given one is closed: the one opened before it, or else the one after it.
+     */
+    Tab neighbour(Tab tab) {
+        int index = tabs.indexOf(tab);
+        if (index > 0)
+            return tabs.get(index - 1);
+        return tabs.size() > 1 ? tabs.get(1) : null;
+    }
+
+    int indexOf(Tab tab) {
+        return tabs.indexOf(tab);
+    }
+
+    List<Tab> all() {
+        return List.copyOf(tabs);
+    }
+
+    int size() {
+        return tabs.size();
+    }
+
+    Tab current() {
+        return current;
+    }
+
+    void setCurrent(Tab current) {
+        this.current = current;
+    }
+
+    record Tab(String id, String handle) {
+    }
+}
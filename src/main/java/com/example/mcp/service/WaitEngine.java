@@ -0,0 +1,98 @@
+package com.example.mcp.service;
+
+import com.example.mcp.config.WaitProperties;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Replacement for {@link org.openqa.selenium.support.ui.WebDriverWait} tuned for latency: the condition is checked
+ * immediately, then polled with a short interval that backs off up to a maximum. Optionally the delay between two
+ * checks ends early on the next DOM mutation, observed through an injected MutationObserver.
+ */
+@Component
+public class WaitEngine {
+
+    private static final String AWAIT_MUTATION_SCRIPT = Scripts.load("await-mutation.js");
+
+    private final WaitProperties properties;
+
+    public WaitEngine(WaitProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Waits until the condition returns neither null nor false and returns its value. Not found and stale
+     * element errors count as "not yet", like in WebDriverWait.
+     */
+    public <T> T until(WebDriver driver, Function<? super WebDriver, T> condition, Duration timeout) {
+        return until(driver, condition, timeout, true);
+    }
+
+    /**
+     * Waits for a condition on an element that was already located. A stale element does not come back, so the
+     * error is thrown right away and the caller can locate the element again instead of waiting out the timeout.
+     */
+    public <T> T untilElement(WebDriver driver, Function<? super WebDriver, T> condition, Duration timeout) {
+        return until(driver, condition, timeout, false);
+    }
+
+    private <T> T until(WebDriver driver, Function<? super WebDriver, T> condition, Duration timeout, boolean retryStale) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long interval = properties.initialPollInterval().toMillis();
+        RuntimeException lastError = null;
+        while (true) {
+            try {
+                T value = condition.apply(driver);
+                if (value != null && !Boolean.FALSE.equals(value))
+                    return value;
+            } catch (StaleElementReferenceException e) {
+                if (!retryStale)
+                    throw e;
+                lastError = e;
+            } catch (NotFoundException e) {
+                lastError = e;
+            }
+
+            long remaining = (deadline - System.nanoTime()) / 1_000_000;
+            if (remaining <= 0)
+                throw new TimeoutException(String.format("Expected condition failed: %s (tried for %d ms)",
+                        condition, timeout.toMillis()), lastError);
+            pause(driver, Math.min(interval, remaining));
+            interval = Math.min((long) (interval * properties.backoffMultiplier()), properties.maxPollInterval().toMillis());
+        }
+    }
+
+    /**
+     * Resolves the timeout of a tool call, falling back to the configured default of the tool.
+     */
+    public Duration timeout(String toolName, Long timeoutInSeconds) {
+        return timeoutInSeconds == null || timeoutInSeconds <= 0
+                ? properties.timeoutFor(toolName)
+                : Duration.ofSeconds(timeoutInSeconds);
+    }
+
+    private void pause(WebDriver driver, long millis) {
+        if (properties.mutationObserver() && driver instanceof JavascriptExecutor executor) {
+            try {
+                executor.executeAsyncScript(AWAIT_MUTATION_SCRIPT, millis);
+                return;
+            } catch (WebDriverException e) {
+                // page is navigating or does not allow scripts, fall back to sleeping
+            }
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting", e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.mcp.service;
+
+import com.example.mcp.data.Browser;
+import com.example.mcp.data.BrowserOptions;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.safari.SafariDriver;
+import org.openqa.selenium.safari.SafariOptions;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Launches new WebDriver instances. This is the cold path, callers should go through {@link WebDriverPool}.
+ */
+@Component
+public class WebDriverFactory {
+
+    public WebDriver create(Browser browserName, BrowserOptions options) {
+        return create(browserName, options, null);
+    }
+
+    /**
+     * Launches a browser that uses the given profile directory, with its disk cache inside the profile.
+     */
+    public WebDriver create(Browser browserName, BrowserOptions options, Path profileDirectory) {
+        switch (browserName) {
+            case chrome -> {
+                ChromeOptions chromeOptions = new ChromeOptions();
+                if (options.headless())
+                    chromeOptions.addArguments("--headless=new");
+                options.arguments().forEach(chromeOptions::addArguments);
+                chromeOptions.setPageLoadStrategy(pageLoadStrategy(options));
+                // page events of browser_subscribe and browser_wait_for come through WebDriver BiDi
+                chromeOptions.enableBiDi();
+                if (profileDirectory != null)
+                    chromeOptions.addArguments("--user-data-dir=" + profileDirectory,
+                            "--disk-cache-dir=" + profileDirectory.resolve("cache"));
+                return new ChromeDriver(chromeOptions);
+            }
+            case firefox -> {
+                FirefoxOptions firefoxOptions = new FirefoxOptions();
+                if (options.headless())
+                    firefoxOptions.addArguments("--headless");
+                options.arguments().forEach(firefoxOptions::addArguments);
+                firefoxOptions.setPageLoadStrategy(pageLoadStrategy(options));
+                // request blocking and page events go through WebDriver BiDi, which has to be enabled on launch
+                firefoxOptions.enableBiDi();
+                if (profileDirectory != null) {
+                    // geckodriver uses a profile passed as argument in place instead of copying it
+                    firefoxOptions.addArguments("-profile", profileDirectory.toString());
+                    firefoxOptions.addPreference("browser.cache.disk.parent_directory", profileDirectory.resolve("cache").toString());
+                }
+                return new FirefoxDriver(firefoxOptions);
+            }
+            case safari -> {
+                if (profileDirectory != null)
+                    throw new IllegalArgumentException("Profiles are not supported by safari");
+                SafariOptions safariOptions = new SafariOptions();
+                safariOptions.setPageLoadStrategy(pageLoadStrategy(options));
+                return new SafariDriver(safariOptions);
+            }
+            default -> throw new IllegalArgumentException("Browser not supported: " + browserName);
+        }
+    }
+
+    private PageLoadStrategy pageLoadStrategy(BrowserOptions options) {
+        return options.pageLoadStrategy() == null
+                ? PageLoadStrategy.NORMAL
+                : PageLoadStrategy.fromString(options.pageLoadStrategy().name());
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.mcp.service;
+
+import com.example.mcp.config.PoolProperties;
+import com.example.mcp.data.Browser;
+import com.example.mcp.data.BrowserOptions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps pre-launched drivers per {@link PoolKey} so that opening a browser becomes a lease instead of a cold start.
+ * Returned drivers are reset (extra tabs closed, cookies, cache and storage of all visited origins cleared,
+ * about:blank loaded) on a background thread and handed out again. Only Chromium drivers can be cleared this far,
+ * returned Firefox drivers are quit and replaced by freshly launched ones. Safari allows a single automation session
+ * only and is never pooled.
+ */
+@Component
+public class WebDriverPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebDriverPool.class);
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final WebDriverFactory driverFactory;
+    private final PoolProperties properties;
+    private final BrowserMetrics browserMetrics;
+    private final ProfileManager profileManager;
+
+    private final Map<PoolKey, Deque<WebDriver>> idleDrivers = new ConcurrentHashMap<>();
+    private final Map<WebDriver, PoolKey> leasedDrivers = new ConcurrentHashMap<>();
+    private final AtomicInteger totalDrivers = new AtomicInteger();
+    // drivers running on a named profile, never pooled. The profile is given free once they quit
+    private final Map<WebDriver, ProfileManager.Lease> profileDrivers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "webdriver-pool");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // quitting a browser mostly waits for its processes to exit, so every driver gets its own thread
+    private final ExecutorService quitExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "webdriver-quit");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public WebDriverPool(WebDriverFactory driverFactory, PoolProperties properties, BrowserMetrics browserMetrics,
+                         ProfileManager profileManager) {
+        this.driverFactory = driverFactory;
+        this.properties = properties;
+        this.browserMetrics = browserMetrics;
+        this.profileManager = profileManager;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.enabled())
+            return;
+        properties.warmup().forEach(browser -> idleDrivers.computeIfAbsent(
+                PoolKey.of(browser, new BrowserOptions(true, List.of())), key -> new ConcurrentLinkedDeque<>()));
+        long interval = properties.refillInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::refill, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Hands out a healthy idle driver for the given browser and options, or launches a new one if none is ready.
+     */
+    public WebDriver lease(Browser browser, BrowserOptions options) {
+        long start = System.nanoTime();
+        PoolKey key = PoolKey.of(browser, options);
+        WebDriver driver = isPoolable(key) ? leaseIdle(key) : null;
+        boolean warm = driver != null;
+        if (!warm && key.options().profile() != null)
+            driver = launchWithProfile(key);
+        else if (!warm)
+            driver = isPoolable(key) ? launch(key) : driverFactory.create(key.browser(), key.options());
+        browserMetrics.recordLease(browser.name(), warm, System.nanoTime() - start);
+        return driver;
+    }
+
+    private WebDriver leaseIdle(PoolKey key) {
+        Deque<WebDriver> idle = idleDrivers.computeIfAbsent(key, k -> new ConcurrentLinkedDeque<>());
+        WebDriver driver;
+        while ((driver = idle.pollFirst()) != null) {
+            if (isHealthy(driver)) {
+                leasedDrivers.put(driver, key);
+                executor.execute(this::refill);
+                return driver;
+            }
+            destroy(driver);
+        }
+        return null;
+    }
+
+    private WebDriver launch(PoolKey key) {
+        if (totalDrivers.incrementAndGet() > properties.maxTotal()) {
+            // pool is exhausted, serve an unmanaged driver which is quit on release
+            totalDrivers.decrementAndGet();
+            return driverFactory.create(key.browser(), key.options());
+        }
+        WebDriver driver;
+        try {
+            driver = driverFactory.create(key.browser(), key.options());
+        } catch (RuntimeException e) {
+            totalDrivers.decrementAndGet();
+            throw e;
+        }
+        leasedDrivers.put(driver, key);
+        return driver;
+    }
+
+    private WebDriver launchWithProfile(PoolKey key) {
+        ProfileManager.Lease profile = profileManager.acquire(key.browser(), key.options().profile(),
+                Boolean.TRUE.equals(key.options().cloneProfile()));
+        WebDriver driver;
+        try {
+            driver = driverFactory.create(key.browser(), key.options(), profile.directory());
+        } catch (RuntimeException e) {
+            profileManager.release(profile);
+            throw e;
+        }
+        profileDrivers.put(driver, profile);
+        return driver;
+    }
+
+    /**
+     * Gives a leased driver back. Pooled drivers are reset in the background and become idle again,
+     * everything else is quit.
+     */
+    public void release(WebDriver driver) {
+        PoolKey key = leasedDrivers.remove(driver);
+        if (key == null) {
+            quit(driver);
+            return;
+        }
+        executor.execute(() -> {
+            Deque<WebDriver> idle = idleDrivers.computeIfAbsent(key, k -> new ConcurrentLinkedDeque<>());
+            if (idle.size() < properties.maxTotal() && reset(driver))
+                idle.offerLast(driver);
+            else
+                destroy(driver);
+        });
+    }
+
+    /**
+     * Quits leased drivers instead of giving them back, all of them in parallel. Waits until they are gone
+     * or the timeout has passed.
+     */
+    public void discardAll(Collection<WebDriver> drivers, Duration timeout) {
+        CompletableFuture<?>[] quits = drivers.stream()
+                .map(driver -> CompletableFuture.runAsync(() -> {
+                    if (leasedDrivers.remove(driver) != null)
+                        destroy(driver);
+                    else
+                        quit(driver);
+                }, quitExecutor))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(quits).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.info("Error in quitting {} browsers: {}", drivers.size(), e.getMessage());
+        }
+    }
+
+    private boolean isPoolable(PoolKey key) {
+        return properties.enabled() && key.browser() != Browser.safari && key.options().profile() == null;
+    }
+
+    private void refill() {
+        idleDrivers.forEach((key, idle) -> {
+            idle.removeIf(driver -> {
+                if (isHealthy(driver))
+                    return false;
+                destroy(driver);
+                return true;
+            });
+            while (idle.size() < properties.minIdle()) {
+                if (totalDrivers.incrementAndGet() > properties.maxTotal()) {
+                    totalDrivers.decrementAndGet();
+                    return;
+                }
+                try {
+                    idle.offerLast(driverFactory.create(key.browser(), key.options()));
+                } catch (Exception e) {
+                    totalDrivers.decrementAndGet();
+                    logger.info("Error in pre-warming browser {}: {}", key.browser(), e.getMessage());
+                    return;
+                }
+            }
+        });
+    }
+
+    /**
+     * Clears everything a client left behind so the driver can be leased by another client: every tab but one,
+     * all cookies, the HTTP cache and the storage (local and session storage, IndexedDB, cache storage, service
+     * workers) of every origin the tabs and their frames were on. Only Chromium can clear storage of origins other
+     * than the current one, other browsers return false and are quit instead of pooled.
+     */
+    private boolean reset(WebDriver driver) {
+        if (!(driver instanceof HasCdp cdp))
+            return false;
+        try {
+            Set<String> origins = new HashSet<>();
+            Set<String> handles = driver.getWindowHandles();
+            String firstTab = handles.iterator().next();
+            for (String handle : handles) {
+                driver.switchTo().window(handle);
+                collectOrigins(cdp, origins);
+                if (!handle.equals(firstTab))
+                    driver.close();
+            }
+            driver.switchTo().window(firstTab);
+            driver.get("about:blank");
+            for (String origin : origins)
+                cdp.executeCdpCommand("Storage.clearDataForOrigin", Map.of("origin", origin, "storageTypes", "all"));
+            cdp.executeCdpCommand("Network.clearBrowserCookies", Map.of());
+            cdp.executeCdpCommand("Network.clearBrowserCache", Map.of());
+            return true;
+        } catch (Exception e) {
+            logger.info("Error in resetting pooled browser: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    // origins of the pages in the history of the current tab and of the frames of its current page
+    private void collectOrigins(HasCdp cdp, Set<String> origins) {
+        Map<String, Object> history = cdp.executeCdpCommand("Page.getNavigationHistory", Map.of());
+        if (history.get("entries") instanceof List<?> entries) {
+            for (Object entry : entries) {
+                if (entry instanceof Map<?, ?> map && map.get("url") != null)
+                    addOrigin(String.valueOf(map.get("url")), origins);
+            }
+        }
+        collectFrameOrigins(cdp.executeCdpCommand("Page.getFrameTree", Map.of()).get("frameTree"), origins);
+    }
+
+    private void collectFrameOrigins(Object frameTree, Set<String> origins) {
+        if (!(frameTree instanceof Map<?, ?> tree))
+            return;
+        if (tree.get("frame") instanceof Map<?, ?> frame && frame.get("securityOrigin") != null)
+            addOrigin(String.valueOf(frame.get("securityOrigin")), origins);
+        if (tree.get("childFrames") instanceof List<?> children)
+            children.forEach(child -> collectFrameOrigins(child, origins));
+    }
+
+    private void addOrigin(String url, Set<String> origins) {
+        try {
+            URI uri = URI.create(url);
+            if (uri.getScheme() != null && uri.getHost() != null && uri.getScheme().startsWith("http"))
+                origins.add(uri.getScheme() + "://" + uri.getHost() + (uri.getPort() == -1 ? "" : ":" + uri.getPort()));
+        } catch (IllegalArgumentException e) {
+            // not a url of a page with storage
+        }
+    }
+
+    private boolean isHealthy(WebDriver driver) {
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void destroy(WebDriver driver) {
+        totalDrivers.decrementAndGet();
+        quit(driver);
+    }
+
+    private void quit(WebDriver driver) {
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            logger.info(e.getMessage());
+        }
+        ProfileManager.Lease profile = profileDrivers.remove(driver);
+        if (profile != null)
+            profileManager.release(profile);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        List<WebDriver> drivers = new ArrayList<>();
+        idleDrivers.values().forEach(idle -> {
+            WebDriver driver;
+            while ((driver = idle.pollFirst()) != null)
+                drivers.add(driver);
+        });
+        discardAll(drivers, SHUTDOWN_TIMEOUT);
+        quitExecutor.shutdownNow();
+    }
+}
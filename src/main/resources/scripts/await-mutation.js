@@ -0,0 +1,14 @@
+// Resolves on the next DOM mutation or after the given number of milliseconds, whichever comes first.
+// Arguments: timeoutMillis, callback
+const done = arguments[arguments.length - 1];
+const timeoutMillis = arguments[0];
+const observer = new MutationObserver(() => {
+    observer.disconnect();
+    clearTimeout(timer);
+    done(true);
+});
+observer.observe(document, {childList: true, subtree: true, attributes: true, characterData: true});
+const timer = setTimeout(() => {
+    observer.disconnect();
+    done(false);
+}, timeoutMillis);
@@ -0,0 +1,30 @@
+// Reads the fields of every row element in one pass. Arguments: rows (elements), fields ([{name, selector,
+// attribute, all}]). A field selector is a CSS selector relative to the row, empty for the row itself. The
+// attribute defaults to the visible text, "html" returns the inner HTML and href, src, value and checked are
+// read as properties so urls come back absolute.
+const [rows, fields] = arguments;
+const PROPERTIES = ['href', 'src', 'value', 'checked'];
+
+const read = (el, attribute) => {
+    if (!attribute || attribute === 'text')
+        return (el.innerText || el.textContent || '').replace(/\s+/g, ' ').trim();
+    if (attribute === 'html')
+        return el.innerHTML;
+    if (PROPERTIES.includes(attribute) && attribute in el)
+        return el[attribute];
+    return el.getAttribute(attribute);
+};
+
+return rows.map(row => {
+    const values = {};
+    for (const field of fields) {
+        if (field.all) {
+            const matches = field.selector ? Array.from(row.querySelectorAll(field.selector)) : [row];
+            values[field.name] = matches.map(el => read(el, field.attribute));
+        } else {
+            const match = field.selector ? row.querySelector(field.selector) : row;
+            values[field.name] = match ? read(match, field.attribute) : null;
+        }
+    }
+    return values;
+});
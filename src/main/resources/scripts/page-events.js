@@ -0,0 +1,25 @@
+// Reports DOM mutations of the document through a WebDriver BiDi channel, summarized at most once per interval.
+// Installed as preload script, so it observes the document before the page's own scripts run.
+// Arguments: channel, intervalMillis
+(channel, intervalMillis) => {
+    let added = 0, removed = 0, attributes = 0, text = 0, timer = null;
+    const flush = () => {
+        timer = null;
+        channel(JSON.stringify({added, removed, attributes, text}));
+        added = removed = attributes = text = 0;
+    };
+    new MutationObserver(records => {
+        for (const record of records) {
+            if (record.type === 'childList') {
+                added += record.addedNodes.length;
+                removed += record.removedNodes.length;
+            } else if (record.type === 'attributes') {
+                attributes++;
+            } else {
+                text++;
+            }
+        }
+        if (timer === null)
+            timer = setTimeout(flush, intervalMillis);
+    }).observe(document, {childList: true, subtree: true, attributes: true, characterData: true});
+}
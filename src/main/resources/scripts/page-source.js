@@ -0,0 +1,33 @@
+// Serializes the page, or the subtree matching a CSS selector, and returns one slice of it together with a
+// content hash. Only the requested slice crosses the wire. Arguments: selector, strip, offset, maxLength, knownHash
+const [selector, strip, offset, maxLength, knownHash] = arguments;
+
+let root = document.documentElement;
+if (selector) {
+    root = document.querySelector(selector);
+    if (!root)
+        throw new Error('No element matches selector: ' + selector);
+}
+if (strip) {
+    root = root.cloneNode(true);
+    root.querySelectorAll('script, style, svg, noscript, template, link[rel="stylesheet"]').forEach(node => node.remove());
+    const walker = document.createTreeWalker(root, NodeFilter.SHOW_COMMENT);
+    const comments = [];
+    while (walker.nextNode())
+        comments.push(walker.currentNode);
+    comments.forEach(comment => comment.remove());
+}
+
+const html = root.outerHTML;
+let h = 0x811c9dc5;
+for (let i = 0; i < html.length; i++) {
+    h ^= html.charCodeAt(i);
+    h = Math.imul(h, 0x01000193);
+}
+const hash = (h >>> 0).toString(16).padStart(8, '0') + '-' + html.length.toString(16);
+if (knownHash && knownHash === hash)
+    return {hash: hash, total: html.length, notModified: true};
+
+const start = Math.min(offset || 0, html.length);
+const end = maxLength ? Math.min(html.length, start + maxLength) : html.length;
+return {hash: hash, total: html.length, offset: start, content: html.substring(start, end), notModified: false};
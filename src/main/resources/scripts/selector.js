@@ -0,0 +1,36 @@
+// Builds a CSS selector that matches only the given element: its id, a test or form attribute, or else the
+// shortest path of tag names and positions from the element upwards that is unique in the document.
+// Arguments: element
+const element = arguments[0];
+const unique = selector => {
+    try {
+        const matches = document.querySelectorAll(selector);
+        return matches.length === 1 && matches[0] === element;
+    } catch (e) {
+        return false;
+    }
+};
+if (element.id && unique('#' + CSS.escape(element.id)))
+    return '#' + CSS.escape(element.id);
+for (const attribute of ['data-testid', 'data-test', 'data-qa', 'name', 'aria-label', 'placeholder']) {
+    const value = element.getAttribute(attribute);
+    const selector = value && element.localName + '[' + attribute + '="' + CSS.escape(value) + '"]';
+    if (selector && unique(selector))
+        return selector;
+}
+const path = [];
+for (let node = element; node && node.nodeType === Node.ELEMENT_NODE; node = node.parentElement) {
+    if (node !== element && node.id) {
+        path.unshift('#' + CSS.escape(node.id));
+    } else {
+        let step = node.localName;
+        const siblings = node.parentElement ? Array.from(node.parentElement.children).filter(child => child.localName === node.localName) : [];
+        if (siblings.length > 1)
+            step += ':nth-of-type(' + (siblings.indexOf(node) + 1) + ')';
+        path.unshift(step);
+    }
+    const selector = path.join(' > ');
+    if (unique(selector))
+        return selector;
+}
+return path.join(' > ');
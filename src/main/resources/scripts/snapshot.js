@@ -0,0 +1,95 @@
+// Walks the DOM once and returns the visible interactive nodes (plus headings for orientation) with role, name
+// and bounds. Every node gets a ref id that sticks to the element across snapshots of the same document.
+// Arguments: rootSelector, maxNodes
+const [rootSelector, maxNodes] = arguments;
+
+const INTERACTIVE = 'a[href], button, input:not([type="hidden"]), select, textarea, summary, details, label[for], '
+    + '[role], [onclick], [tabindex]:not([tabindex="-1"]), [contenteditable=""], [contenteditable="true"], '
+    + 'h1, h2, h3, h4, h5, h6';
+const IMPLICIT_ROLES = {
+    A: 'link', BUTTON: 'button', SELECT: 'combobox', TEXTAREA: 'textbox', SUMMARY: 'button', DETAILS: 'group',
+    LABEL: 'label', H1: 'heading', H2: 'heading', H3: 'heading', H4: 'heading', H5: 'heading', H6: 'heading'
+};
+const INPUT_ROLES = {
+    button: 'button', submit: 'button', reset: 'button', image: 'button', checkbox: 'checkbox', radio: 'radio',
+    range: 'slider', number: 'spinbutton', search: 'searchbox', file: 'button'
+};
+
+const root = rootSelector ? document.querySelector(rootSelector) : document.body;
+if (!root)
+    throw new Error('No element matches selector: ' + rootSelector);
+
+window.__mcpRefSeq = window.__mcpRefSeq || 0;
+const limit = maxNodes || 500;
+
+function role(el) {
+    const explicit = el.getAttribute('role');
+    if (explicit)
+        return explicit.split(' ')[0];
+    if (el.tagName === 'INPUT')
+        return INPUT_ROLES[(el.getAttribute('type') || 'text').toLowerCase()] || 'textbox';
+    if (el.isContentEditable)
+        return 'textbox';
+    return IMPLICIT_ROLES[el.tagName] || 'generic';
+}
+
+function name(el) {
+    const labelledBy = el.getAttribute('aria-labelledby');
+    let text = el.getAttribute('aria-label')
+        || (labelledBy && labelledBy.split(' ').map(id => document.getElementById(id)).filter(Boolean).map(n => n.innerText).join(' '))
+        || (el.labels && el.labels.length && el.labels[0].innerText)
+        || el.getAttribute('alt') || el.getAttribute('title') || el.getAttribute('placeholder');
+    if (!text && (el.tagName === 'INPUT' && ['button', 'submit', 'reset'].includes(el.type)))
+        text = el.value;
+    if (!text && el.tagName !== 'INPUT' && el.tagName !== 'SELECT' && el.tagName !== 'TEXTAREA')
+        text = el.innerText;
+    text = (text || '').replace(/\s+/g, ' ').trim();
+    return text.length > 80 ? text.substring(0, 79) + '…' : text;
+}
+
+function visible(el) {
+    const rect = el.getBoundingClientRect();
+    if (rect.width === 0 && rect.height === 0)
+        return false;
+    const style = getComputedStyle(el);
+    return style.visibility !== 'hidden' && style.display !== 'none' && style.opacity !== '0';
+}
+
+const nodes = [];
+const elements = [];
+const candidates = root.querySelectorAll(INTERACTIVE);
+let i = 0;
+for (; i < candidates.length && nodes.length < limit; i++) {
+    const el = candidates[i];
+    if (!visible(el))
+        continue;
+    if (!el.__mcpRef)
+        el.__mcpRef = 'e' + (++window.__mcpRefSeq);
+
+    let depth = 0;
+    for (let parent = el.parentElement; parent && parent !== root; parent = parent.parentElement)
+        if (parent.__mcpRef && parent.matches(INTERACTIVE))
+            depth++;
+
+    const rect = el.getBoundingClientRect();
+    const node = {
+        ref: el.__mcpRef, role: role(el), name: name(el), depth: depth,
+        x: Math.round(rect.x), y: Math.round(rect.y), w: Math.round(rect.width), h: Math.round(rect.height)
+    };
+    // password values never leave the page, only whether the field is filled
+    if (el.tagName === 'INPUT' && el.type === 'password')
+        node.valueSet = !!el.value;
+    else if ('value' in el && el.tagName !== 'BUTTON' && typeof el.value === 'string' && el.value)
+        node.value = el.value.length > 80 ? el.value.substring(0, 79) + '…' : el.value;
+    if (el.checked)
+        node.checked = true;
+    if (el.disabled)
+        node.disabled = true;
+    nodes.push(node);
+    elements.push(el);
+}
+// truncated only if a visible candidate was left out
+let truncated = false;
+for (; i < candidates.length && !truncated; i++)
+    truncated = visible(candidates[i]);
+return {nodes: nodes, elements: elements, truncated: truncated};
@@ -0,0 +1,26 @@
+// Reads or replaces the local and session storage of the current origin. Arguments: local, session (both null to
+// read). Pages without an origin of their own, like about:blank, have no storage and return a null origin.
+const [local, session] = arguments;
+
+const copy = storage => {
+    const values = {};
+    for (let i = 0; i < storage.length; i++) {
+        const key = storage.key(i);
+        values[key] = storage.getItem(key);
+    }
+    return values;
+};
+const replace = (storage, values) => {
+    storage.clear();
+    Object.keys(values).forEach(key => storage.setItem(key, values[key]));
+};
+
+try {
+    if (local)
+        replace(window.localStorage, local);
+    if (session)
+        replace(window.sessionStorage, session);
+    return {origin: location.origin, local: copy(window.localStorage), session: copy(window.sessionStorage)};
+} catch (e) {
+    return {origin: null, local: {}, session: {}};
+}
@@ -0,0 +1,47 @@
+package com.example.mcp.service;
+
+import com.example.mcp.config.ExecutionProperties;
+import com.example.mcp.config.WaitProperties;
+import com.example.mcp.data.Browser;
+import com.example.mcp.data.LocatorStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BrowserActionsTest {
+
+    private final WebDriver driver = mock(WebDriver.class);
+    private final BrowserSession session = new BrowserSession("chrome-1", Browser.chrome, driver);
+    private final BrowserActions browserActions = new BrowserActions(
+            new WaitEngine(new WaitProperties(Duration.ofSeconds(20), Map.of(), Duration.ofMillis(25), Duration.ofMillis(500), 2.0, false)),
+            new BrowserMetrics(new SimpleMeterRegistry(), new SessionManager(new ExecutionProperties(8, 32, Duration.ofSeconds(60)))));
+
+    @Test
+    void staleCachedElementIsLocatedAgainRightAway() {
+        WebElement stale = mock(WebElement.class);
+        when(stale.isDisplayed()).thenThrow(new StaleElementReferenceException("stale"));
+        session.cacheElement(LocatorStrategy.id, "submit", stale);
+        WebElement fresh = mock(WebElement.class);
+        when(fresh.isDisplayed()).thenReturn(true);
+        when(fresh.isEnabled()).thenReturn(true);
+        when(driver.findElement(By.id("submit"))).thenReturn(fresh);
+
+        long start = System.nanoTime();
+        browserActions.click(session, LocatorStrategy.id, "submit", 5L);
+
+        verify(fresh).click();
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0,
+                "the stale element should not be waited on for the click timeout");
+    }
+}
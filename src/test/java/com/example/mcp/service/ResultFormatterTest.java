@@ -0,0 +1,56 @@
+package com.example.mcp.service;
+
+import com.example.mcp.config.ResultProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ResultFormatterTest {
+
+    private final ResultFormatter formatter = new ResultFormatter(new ResultProperties(false, 20000, Map.of(), true,
+            List.of("browser_page_source", "browser_snapshot"), 300, List.of("browser_screenshot_image"), Duration.ofMinutes(10), 64));
+
+    @Test
+    void snapshotOutlineKeepsIndentation() {
+        String outline = """
+                - navigation "Main" [ref=e1] [0,0 1280x64]
+                  - link "Home" [ref=e2] [16,16 80x32]
+                  - list [ref=e3] [120,8 600x48]
+                    - link "Docs" [ref=e4] [128,16 64x32]
+                    - link "Blog" [ref=e5] [200,16 64x32]
+                - textbox "Search" value="selenium  mcp" [ref=e6] [0,80 320x32]
+                  - button "Go" [disabled] [ref=e7] [328,80 48x32]
+                """;
+
+        assertEquals(outline, formatter.format("browser_snapshot", outline, null));
+    }
+
+    @Test
+    void collapsingKeepsSnapshotIndentation() {
+        String outline = """
+                - navigation "Main" [ref=e1] [0,0 1280x64]
+                  - link "Home" [ref=e2] [16,16 80x32]
+                    - img "Logo" [ref=e3] [20,20 24x24]
+                """;
+
+        assertEquals(outline, formatter.format("browser_get_text", outline, null));
+    }
+
+    @Test
+    void collapsesSpaceInsideLinesOnly() {
+        String text = "\n\n  Title \t of  page  \r\n\n\n\n    indented   text\n";
+
+        assertEquals("  Title of page\n\n    indented text\n", formatter.format("browser_get_text", text, null));
+    }
+
+    @Test
+    void leavesVerbatimToolsUntouched() {
+        String source = "<pre>\n  a    b\n\n\n\n</pre>";
+
+        assertEquals(source, formatter.format("browser_page_source", source, null));
+    }
+}
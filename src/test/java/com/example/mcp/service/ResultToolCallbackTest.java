@@ -0,0 +1,58 @@
+package com.example.mcp.service;
+
+import com.example.mcp.config.ExecutionProperties;
+import com.example.mcp.config.ResultProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResultToolCallbackTest {
+
+    private final ResultFormatter formatter = new ResultFormatter(new ResultProperties(true, 20000, Map.of(), true,
+            List.of("browser_page_source", "browser_snapshot"), 300, List.of("browser_screenshot_image"), Duration.ofMinutes(10), 64));
+    private final BrowserMetrics browserMetrics = new BrowserMetrics(new SimpleMeterRegistry(),
+            new SessionManager(new ExecutionProperties(8, 32, Duration.ofSeconds(60))));
+
+    @Test
+    void rawToolErrorsAreRethrown() {
+        ToolExecutionException error = new ToolExecutionException(definition("browser_screenshot_image"),
+                new IllegalStateException("No active browser sessions exist"));
+        ResultToolCallback callback = new ResultToolCallback(failing("browser_screenshot_image", error), formatter, browserMetrics);
+
+        assertSame(error, assertThrows(ToolExecutionException.class, () -> callback.call("{}", null)));
+    }
+
+    @Test
+    void otherToolErrorsBecomeErrorResults() {
+        ToolExecutionException error = new ToolExecutionException(definition("browser_click"),
+                new IllegalStateException("No active browser sessions exist"));
+        ResultToolCallback callback = new ResultToolCallback(failing("browser_click", error), formatter, browserMetrics);
+
+        assertEquals("{\"status\":\"error\",\"code\":\"unavailable\",\"result\":\"No active browser sessions exist\"}",
+                callback.call("{}", null));
+    }
+
+    private ToolCallback failing(String name, RuntimeException error) {
+        ToolCallback tool = mock(ToolCallback.class);
+        when(tool.getToolDefinition()).thenReturn(definition(name));
+        when(tool.call(any(), any())).thenThrow(error);
+        return tool;
+    }
+
+    private ToolDefinition definition(String name) {
+        return ToolDefinition.builder().name(name).description(name).inputSchema("{}").build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.mcp.service;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.WebDriver;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TabRegistryTest {
+
+    private final WebDriver driver = mock(WebDriver.class);
+    private final TabRegistry tabs = new TabRegistry();
+
+    @Test
+    void syncAssignsIdsInHandleOrderAndFindsCurrent() {
+        browserHas("b", "a", "b", "c");
+        tabs.sync(driver);
+
+        assertEquals(List.of("t1", "t2", "t3"), ids());
+        assertEquals("b", tabs.get("t2").handle());
+        assertSame(tabs.get(1), tabs.current());
+    }
+
+    @Test
+    void syncKeepsIdsOfKnownTabsAndAppendsNewOnes() {
+        browserHas("a", "a", "b", "c");
+        tabs.sync(driver);
+        browserHas("a", "a", "c", "d");
+        tabs.sync(driver);
+
+        assertEquals(List.of("t1", "t3", "t4"), ids());
+        assertNull(tabs.get("t2"));
+        assertEquals("d", tabs.get("t4").handle());
+        assertEquals(1, tabs.indexOf(tabs.get("t3")));
+    }
+
+    @Test
+    void syncWithoutCurrentWindowLeavesNoCurrentTab() {
+        browserHas("a", "a", "b");
+        when(driver.getWindowHandle()).thenThrow(new NoSuchWindowException("closed"));
+        tabs.sync(driver);
+
+        assertEquals(2, tabs.size());
+        assertNull(tabs.current());
+    }
+
+    @Test
+    void ensureSyncedReadsHandlesOnce() {
+        browserHas("a", "a");
+        tabs.ensureSynced(driver).ensureSynced(driver);
+
+        verify(driver, times(1)).getWindowHandles();
+    }
+
+    @Test
+    void neighbourIsThePreviousTabOrElseTheNext() {
+        TabRegistry.Tab first = tabs.add("a");
+        TabRegistry.Tab second = tabs.add("b");
+        TabRegistry.Tab third = tabs.add("c");
+
+        assertSame(second, tabs.neighbour(third));
+        assertSame(first, tabs.neighbour(second));
+        assertSame(second, tabs.neighbour(first));
+        tabs.remove(second);
+        tabs.remove(third);
+        assertNull(tabs.neighbour(first));
+    }
+
+    @Test
+    void removeForgetsTheTabAndClearsCurrent() {
+        TabRegistry.Tab first = tabs.add("a");
+        TabRegistry.Tab second = tabs.add("b");
+        tabs.setCurrent(second);
+        tabs.remove(second);
+
+        assertEquals(List.of("t1"), ids());
+        assertNull(tabs.get("t2"));
+        assertNull(tabs.get(1));
+        assertNull(tabs.current());
+        assertSame(first, tabs.get(0));
+        assertEquals("t3", tabs.add("b").id());
+    }
+
+    private void browserHas(String current, String... handles) {
+        when(driver.getWindowHandles()).thenReturn(new LinkedHashSet<>(List.of(handles)));
+        when(driver.getWindowHandle()).thenReturn(current);
+    }
+
+    private List<String> ids() {
+        return tabs.all().stream().map(TabRegistry.Tab::id).toList();
+    }
+}